@@ -0,0 +1,311 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * A pool of byte[]s, bucketed into power-of-two size classes. Each thread keeps
+ * a few arrays of each class to itself, anything past that is shared with the
+ * other threads. Everything the pool holds on to, including the arrays cached
+ * by each thread, counts towards a single byte limit.
+ * 
+ * <p>
+ * Leak detection can be turned on with {@link #setLeakDetection(boolean)}. When
+ * on, every {@link #take(int)} records its call site until the array is given
+ * back. Arrays that are garbage collected without being given back are
+ * reported to the {@link #setLeakListener(Consumer) leak listener}.
+ *
+ * @apiNote Once you {@link #give(byte[])} an array back you must not touch it
+ *          again, it may already belong to someone else.
+ */
+public class BufferPool {
+    public static final BufferPool DEFAULT = new BufferPool();
+
+    /**
+     * The smallest size class, 64 bytes.
+     */
+    public static final int MIN_SIZE_SHIFT = 6;
+
+    /**
+     * The largest size class, 16 MiB. Larger requests are allocated normally and
+     * are not retained when given back.
+     */
+    public static final int MAX_SIZE_SHIFT = 24;
+
+    public static final int DEFAULT_THREAD_CACHE_DEPTH = 4;
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 64 /*mb*/ * 1024 * 1024;
+
+    private static final int SIZE_CLASSES = MAX_SIZE_SHIFT - MIN_SIZE_SHIFT + 1;
+
+    /**
+     * Un-counts the arrays cached by threads that have died.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int threadCacheDepth;
+    private final long maxRetainedBytes;
+
+    private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(this::createThreadCache);
+
+    @SuppressWarnings({
+            "unchecked",
+            "rawtypes"
+    })
+    private final ConcurrentLinkedQueue<byte[]>[] shared = new ConcurrentLinkedQueue[SIZE_CLASSES];
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    private final Map<byte[], LeakRecord> leakRecordsByArray = new WeakHashMap<>(); // byte[] uses identity equality.
+    private final Set<LeakRecord> leakRecords = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<byte[]> leakQueue = new ReferenceQueue<>();
+
+    /**
+     * Called with the allocation site of each array that was garbage collected
+     * without being given back. Does nothing by default, set one while leak
+     * detection is enabled.
+     */
+    private @Setter @NonNull Consumer<Throwable> leakListener = (site) -> {};
+
+    /**
+     * @return whether or not leak detection is enabled.
+     */
+    private volatile @Getter boolean leakDetectionEnabled = false;
+
+    public BufferPool() {
+        this(DEFAULT_THREAD_CACHE_DEPTH, DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    /**
+     * @param threadCacheDepth the amount of arrays of each size class that a
+     *                         thread may keep to itself.
+     * @param maxRetainedBytes the total size of the arrays that may be retained,
+     *                         both shared and cached by threads. Arrays given
+     *                         back past this limit are left to the GC.
+     */
+    public BufferPool(int threadCacheDepth, long maxRetainedBytes) {
+        if (threadCacheDepth < 0) throw new IllegalArgumentException("threadCacheDepth cannot be negative");
+        if (maxRetainedBytes < 0) throw new IllegalArgumentException("maxRetainedBytes cannot be negative");
+
+        this.threadCacheDepth = threadCacheDepth;
+        this.maxRetainedBytes = maxRetainedBytes;
+
+        for (int idx = 0; idx < SIZE_CLASSES; idx++) {
+            this.shared[idx] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Turns leak detection on or off. This is expensive (a stack trace is
+     * captured on every take), so only use it while debugging.
+     */
+    public void setLeakDetection(boolean enabled) {
+        this.leakDetectionEnabled = enabled;
+
+        if (!enabled) {
+            synchronized (this.leakRecordsByArray) {
+                this.leakRecordsByArray.clear();
+            }
+            this.leakRecords.clear();
+        }
+    }
+
+    /**
+     * @return the allocation sites of all arrays that are currently taken and not
+     *         yet given back. Only populated while leak detection is enabled.
+     */
+    public List<Throwable> outstandingAllocations() {
+        this.pollLeaks();
+
+        List<Throwable> sites = new ArrayList<>();
+        for (LeakRecord record : this.leakRecords) {
+            sites.add(record.site);
+        }
+        return sites;
+    }
+
+    /**
+     * @return the total size of the arrays currently retained by the pool,
+     *         including those cached by threads.
+     */
+    public long getRetainedBytes() {
+        return this.retainedBytes.get();
+    }
+
+    /**
+     * @return an array of at least minSize bytes. Its contents are undefined.
+     *
+     * @throws IllegalArgumentException if minSize is negative
+     */
+    public byte[] take(int minSize) {
+        if (minSize < 0) throw new IllegalArgumentException("minSize cannot be negative");
+
+        int sizeClass = sizeClassOf(minSize);
+        if (sizeClass == -1) {
+            return new byte[minSize]; // Too large to pool.
+        }
+
+        byte[] buf = this.threadCaches.get().classes[sizeClass].pollFirst();
+        if (buf == null) {
+            buf = this.shared[sizeClass].poll();
+        }
+
+        if (buf == null) {
+            buf = new byte[1 << (sizeClass + MIN_SIZE_SHIFT)];
+        } else {
+            this.retainedBytes.addAndGet(-buf.length);
+        }
+
+        if (this.leakDetectionEnabled) {
+            this.track(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * Returns an array to the pool. Arrays that did not come from
+     * {@link #take(int)} (i.e are not exactly a size class) are ignored.
+     */
+    public void give(@NonNull byte[] buf) {
+        int sizeClass = sizeClassOf(buf.length);
+        if (sizeClass == -1 || buf.length != 1 << (sizeClass + MIN_SIZE_SHIFT)) {
+            return; // Not one of ours.
+        }
+
+        if (this.leakDetectionEnabled) {
+            this.untrack(buf);
+        }
+
+        if (this.retainedBytes.addAndGet(buf.length) > this.maxRetainedBytes) {
+            this.retainedBytes.addAndGet(-buf.length);
+            return; // Full, let the GC have it.
+        }
+
+        ArrayDeque<byte[]> threadCache = this.threadCaches.get().classes[sizeClass];
+        if (threadCache.size() < this.threadCacheDepth) {
+            threadCache.addFirst(buf);
+        } else {
+            this.shared[sizeClass].offer(buf);
+        }
+    }
+
+    /* ---------------- */
+    /* Leak Detection   */
+    /* ---------------- */
+
+    private void track(byte[] buf) {
+        this.pollLeaks();
+
+        LeakRecord record = new LeakRecord(buf, this.leakQueue, new Throwable("Buffer of " + buf.length + " bytes was taken here"));
+        synchronized (this.leakRecordsByArray) {
+            this.leakRecordsByArray.put(buf, record);
+        }
+        this.leakRecords.add(record);
+    }
+
+    private void untrack(byte[] buf) {
+        LeakRecord record;
+        synchronized (this.leakRecordsByArray) {
+            record = this.leakRecordsByArray.remove(buf);
+        }
+        if (record != null) {
+            this.leakRecords.remove(record);
+            record.clear(); // Prevent it from being enqueued.
+        }
+    }
+
+    private void pollLeaks() {
+        LeakRecord record;
+        while ((record = (LeakRecord) this.leakQueue.poll()) != null) {
+            if (this.leakRecords.remove(record)) {
+                this.leakListener.accept(record.site);
+            }
+        }
+    }
+
+    private static class LeakRecord extends WeakReference<byte[]> {
+        private final Throwable site;
+
+        LeakRecord(byte[] buf, ReferenceQueue<byte[]> queue, Throwable site) {
+            super(buf, queue);
+            this.site = site;
+        }
+    }
+
+    /* ---------------- */
+    /* Helpers          */
+    /* ---------------- */
+
+    /**
+     * @return the index of the smallest size class that can hold size bytes, or -1
+     *         if size is larger than the largest class.
+     */
+    private static int sizeClassOf(int size) {
+        if (size <= 1 << MIN_SIZE_SHIFT) {
+            return 0;
+        }
+
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1); // ceil(log2(size))
+        if (shift > MAX_SIZE_SHIFT) {
+            return -1;
+        }
+        return shift - MIN_SIZE_SHIFT;
+    }
+
+    private ThreadCache createThreadCache() {
+        ThreadCache cache = new ThreadCache(this.threadCacheDepth);
+
+        // Only reference the deques, not the cache itself, or it could never be
+        // collected.
+        ArrayDeque<byte[]>[] classes = cache.classes;
+        AtomicLong retainedBytes = this.retainedBytes;
+        CLEANER.register(cache, () -> {
+            for (ArrayDeque<byte[]> deque : classes) {
+                for (byte[] buf : deque) {
+                    retainedBytes.addAndGet(-buf.length);
+                }
+            }
+        });
+        return cache;
+    }
+
+    private static class ThreadCache {
+        private final ArrayDeque<byte[]>[] classes;
+
+        @SuppressWarnings({
+                "unchecked",
+                "rawtypes"
+        })
+        ThreadCache(int depth) {
+            this.classes = new ArrayDeque[SIZE_CLASSES];
+            for (int idx = 0; idx < SIZE_CLASSES; idx++) {
+                this.classes[idx] = new ArrayDeque<>(depth);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes;
+
+import java.io.IOException;
+
+/**
+ * Receives a range of bytes without taking ownership of the array. The bytes
+ * are only valid for the duration of the call, copy them if you need to keep
+ * them.
+ */
+@FunctionalInterface
+public interface ByteConsumer {
+
+    public void accept(byte[] buf, int off, int len) throws IOException;
+
+}
@@ -63,4 +63,66 @@ public class ByteSizer {
         return this;
     }
 
+    public ByteSizer varint(int value) {
+        this.result += varlongSize(value & 0xFFFFFFFFL);
+        return this;
+    }
+
+    public ByteSizer varlong(long value) {
+        this.result += varlongSize(value);
+        return this;
+    }
+
+    public ByteSizer svarint(int value) {
+        return this.varint((value << 1) ^ (value >> 31));
+    }
+
+    public ByteSizer svarlong(long value) {
+        return this.varlong((value << 1) ^ (value >> 63));
+    }
+
+    public ByteSizer prefixedBytes(int len) {
+        return this.varint(len).bytes(len);
+    }
+
+    public ByteSizer prefixedString(CharSequence value) {
+        return this.prefixedBytes(utf8Length(value));
+    }
+
+    /**
+     * @return the amount of bytes needed to LEB128 encode the unsigned value.
+     */
+    public static int varlongSize(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * @return the amount of bytes needed to encode the value as UTF-8. Unpaired
+     *         surrogates are counted as the 1 byte replacement character that
+     *         {@link String#getBytes(java.nio.charset.Charset)} would emit.
+     */
+    public static int utf8Length(CharSequence value) {
+        int len = value.length();
+        int result = len;
+
+        for (int idx = 0; idx < len; idx++) {
+            char c = value.charAt(idx);
+            if (c < 0x80) {
+                continue;
+            } else if (c < 0x800) {
+                result += 1;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && idx + 1 < len && Character.isLowSurrogate(value.charAt(idx + 1))) {
+                    result += 2; // 4 bytes for the pair.
+                    idx++;
+                }
+                // Otherwise it's replaced with '?'.
+            } else {
+                result += 2;
+            }
+        }
+
+        return result;
+    }
+
 }
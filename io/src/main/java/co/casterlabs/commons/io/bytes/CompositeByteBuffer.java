@@ -0,0 +1,322 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+
+import co.casterlabs.commons.io.bytes.reading.ByteReader;
+import lombok.NonNull;
+
+/**
+ * Chains several buffers together into one logical buffer without copying
+ * them. Segments can be read randomly via {@link #get(long)}, sequentially via
+ * {@link #reader()} or written out with a single gathering write via
+ * {@link #writeTo(GatheringByteChannel)}.
+ *
+ * @apiNote The segments are shared, not copied, so you must not modify them
+ *          after adding them. This class is not thread-safe.
+ */
+public class CompositeByteBuffer {
+    private ByteBuffer[] segments = new ByteBuffer[4];
+    private long[] segmentStarts = new long[4];
+    private int segmentCount = 0;
+    private long size = 0;
+
+    /**
+     * Adds the remaining bytes of the buffer as a new segment. The buffer's
+     * position is not changed.
+     */
+    public CompositeByteBuffer add(@NonNull ByteBuffer segment) {
+        if (!segment.hasRemaining()) return this;
+
+        if (this.segmentCount == this.segments.length) {
+            this.segments = Arrays.copyOf(this.segments, this.segmentCount * 2);
+            this.segmentStarts = Arrays.copyOf(this.segmentStarts, this.segmentCount * 2);
+        }
+
+        ByteBuffer slice = segment.slice();
+        this.segments[this.segmentCount] = slice;
+        this.segmentStarts[this.segmentCount] = this.size;
+        this.segmentCount++;
+        this.size += slice.remaining();
+        return this;
+    }
+
+    /**
+     * Adds len bytes of b starting at off as a new segment.
+     */
+    public CompositeByteBuffer add(@NonNull byte[] b, int off, int len) {
+        return this.add(ByteBuffer.wrap(b, off, len));
+    }
+
+    public CompositeByteBuffer add(@NonNull byte[] b) {
+        return this.add(b, 0, b.length);
+    }
+
+    /**
+     * Removes all segments.
+     */
+    public void clear() {
+        Arrays.fill(this.segments, 0, this.segmentCount, null);
+        this.segmentCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @return the total amount of bytes across all segments.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    public int segmentCount() {
+        return this.segmentCount;
+    }
+
+    /**
+     * @return the segment containing the byte at index.
+     */
+    private int segmentOf(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+
+        int found = Arrays.binarySearch(this.segmentStarts, 0, this.segmentCount, index);
+        if (found >= 0) {
+            return found;
+        }
+        return -found - 2; // The segment that starts before index.
+    }
+
+    /**
+     * @return the byte at index.
+     */
+    public byte get(long index) {
+        int segment = this.segmentOf(index);
+        return this.segments[segment].get((int) (index - this.segmentStarts[segment]));
+    }
+
+    /**
+     * Copies len bytes starting at index into dst at offset off.
+     */
+    public void get(long index, @NonNull byte[] dst, int off, int len) {
+        if (len == 0) return;
+        if (index + len > this.size) {
+            throw new IndexOutOfBoundsException("Range " + index + "+" + len + " out of bounds for size " + this.size);
+        }
+
+        int segment = this.segmentOf(index);
+        int segmentPos = (int) (index - this.segmentStarts[segment]);
+
+        while (len > 0) {
+            ByteBuffer view = this.segments[segment].duplicate();
+            view.position(segmentPos);
+
+            int chunk = Math.min(len, view.remaining());
+            view.get(dst, off, chunk);
+
+            off += chunk;
+            len -= chunk;
+            segment++;
+            segmentPos = 0;
+        }
+    }
+
+    /**
+     * @return a copy of all the bytes in a single array.
+     *
+     * @throws IllegalStateException if the buffer is too large for an array.
+     */
+    public byte[] toByteArray() {
+        if (this.size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Buffer is too large to fit in an array: " + this.size);
+        }
+
+        byte[] result = new byte[(int) this.size];
+        this.get(0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * @return views of each segment, suitable for a gathering write. Consuming
+     *         them does not affect this buffer.
+     */
+    public ByteBuffer[] nioBuffers() {
+        ByteBuffer[] views = new ByteBuffer[this.segmentCount];
+        for (int idx = 0; idx < this.segmentCount; idx++) {
+            views[idx] = this.segments[idx].duplicate();
+        }
+        return views;
+    }
+
+    /**
+     * Writes every segment to the channel using gathering writes.
+     *
+     * @return             the amount of bytes written. This is always
+     *                     {@link #size()} for a blocking channel, a non-blocking
+     *                     channel may stop accepting bytes early.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public long writeTo(@NonNull GatheringByteChannel channel) throws IOException {
+        ByteBuffer[] views = this.nioBuffers();
+
+        long written = 0;
+        int first = 0;
+        while (written < this.size) {
+            long count = channel.write(views, first, views.length - first);
+            if (count == 0) break; // Non-blocking and full, don't spin.
+
+            written += count;
+            while (first < views.length && !views[first].hasRemaining()) {
+                first++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * @return a reader that reads sequentially through the segments, starting at
+     *         the first byte. Segments added after creating the reader will also
+     *         be read.
+     */
+    public ByteReader reader() {
+        return new SegmentReader();
+    }
+
+    private class SegmentReader extends ByteReader {
+        private int segment = 0;
+        private int segmentPos = 0;
+        private long position = 0;
+
+        /**
+         * Our own duplicate of the current segment, so that changing its byte order
+         * doesn't race with other readers of the same segment.
+         */
+        private ByteBuffer view;
+        private ByteBuffer viewSource;
+
+        @Override
+        public long remaining() {
+            return size - this.position;
+        }
+
+        private void ensureReadable(long len) throws IOException {
+            if (size - this.position < len) {
+                throw new EndOfStreamException("End of stream");
+            }
+        }
+
+        private void advance(int len) {
+            this.position += len;
+            this.segmentPos += len;
+            while (this.segment < segmentCount && this.segmentPos >= segments[this.segment].limit()) {
+                this.segmentPos -= segments[this.segment].limit();
+                this.segment++;
+            }
+        }
+
+        /**
+         * @return a view of the current segment if it contains at least len more
+         *         bytes, otherwise null.
+         */
+        private ByteBuffer contiguous(int len) {
+            if (this.segment >= segmentCount) return null;
+
+            ByteBuffer current = segments[this.segment];
+            if (current.limit() - this.segmentPos < len) return null;
+
+            if (this.viewSource != current) {
+                this.view = current.duplicate();
+                this.viewSource = current;
+            }
+            return this.view;
+        }
+
+        @Override
+        public void skip(int len) throws IOException {
+            if (len < 1) return;
+            ensureReadable(len);
+            this.advance(len);
+        }
+
+        @Override
+        public byte[] read(int len) throws IOException {
+            if (len < 1) return new byte[0];
+
+            byte[] buf = new byte[len];
+            this.read(buf, 0, len);
+            return buf;
+        }
+
+        @Override
+        public void read(byte[] b, int off, int len) throws IOException {
+            if (len < 1) return;
+            ensureReadable(len);
+
+            get(this.position, b, off, len);
+            this.advance(len);
+        }
+
+        @Override
+        protected int read() throws IOException {
+            ensureReadable(1);
+
+            int value = segments[this.segment].get(this.segmentPos) & 0xFF;
+            this.advance(1);
+            return value;
+        }
+
+        @Override
+        protected int read16(ByteOrder order) throws IOException {
+            ByteBuffer current = this.contiguous(2);
+            if (current == null) return super.read16(order);
+
+            int value = current.order(order).getShort(this.segmentPos) & 0xFFFF;
+            this.advance(2);
+            return value;
+        }
+
+        @Override
+        protected long read32(ByteOrder order) throws IOException {
+            ByteBuffer current = this.contiguous(4);
+            if (current == null) return super.read32(order);
+
+            long value = current.order(order).getInt(this.segmentPos) & 0xFFFFFFFFL;
+            this.advance(4);
+            return value;
+        }
+
+        @Override
+        protected long read64(ByteOrder order) throws IOException {
+            ByteBuffer current = this.contiguous(8);
+            if (current == null) return super.read64(order);
+
+            long value = current.order(order).getLong(this.segmentPos);
+            this.advance(8);
+            return value;
+        }
+
+        @Override
+        public void close() throws Exception {
+            this.segment = segmentCount;
+            this.segmentPos = 0;
+            this.position = size;
+        }
+
+    }
+
+}
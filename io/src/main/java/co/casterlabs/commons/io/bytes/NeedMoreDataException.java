@@ -0,0 +1,37 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes;
+
+import java.io.IOException;
+
+/**
+ * Thrown by non-blocking readers when not enough input has arrived yet. This is
+ * not an error, the caller should reset to its mark and try again once more
+ * data is available.
+ * 
+ * @implNote This is thrown very frequently, so no stack trace is captured. A
+ *           new instance is thrown every time because a shared one would
+ *           collect suppressed exceptions from every thread that saw it.
+ */
+public class NeedMoreDataException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public NeedMoreDataException() {
+        super("Need more data", null);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this; // Don't bother, this is control flow.
+    }
+
+}
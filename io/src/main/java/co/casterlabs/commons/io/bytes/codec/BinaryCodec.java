@@ -0,0 +1,216 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.codec;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import co.casterlabs.commons.io.bytes.ByteSizer;
+import co.casterlabs.commons.io.bytes.reading.ArrayByteReader;
+import co.casterlabs.commons.io.bytes.reading.ByteReader;
+import co.casterlabs.commons.io.bytes.writing.ArrayByteWriter;
+import co.casterlabs.commons.io.bytes.writing.ByteWriter;
+import lombok.NonNull;
+
+/**
+ * Sizes, encodes and decodes classes whose fields are annotated with
+ * {@link BinaryField}, replacing the usual hand-written {@link ByteSizer},
+ * {@link ByteWriter} and {@link ByteReader} sequences.
+ * 
+ * <pre>
+ * &#64;LittleEndian
+ * class Header {
+ *     &#64;BinaryField(0) short version;
+ *     &#64;BinaryField(1) &#64;Varint int length;
+ *     &#64;BinaryField(2) String name;
+ * }
+ * 
+ * byte[] bytes = BinaryCodec.of(Header.class).encode(header);
+ * </pre>
+ * 
+ * Supported field types are the primitives, String and byte[] (both varint
+ * length-prefixed) and other classes with {@link BinaryField}s. Multi-byte
+ * values are big endian unless marked {@link LittleEndian}, ints and longs can
+ * be marked {@link Varint}. Decoding requires a no-args constructor, which may
+ * be private. Null values cannot be encoded.
+ * 
+ * @implNote The class is inspected once and its accessors are bound as
+ *           MethodHandles, after that no reflection is involved.
+ */
+public class BinaryCodec<T> {
+    private static final ClassValue<BinaryCodec<?>> CACHE = new ClassValue<BinaryCodec<?>>() {
+        @Override
+        protected BinaryCodec<?> computeValue(Class<?> type) {
+            return new BinaryCodec<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final _FieldCodec[] fields;
+    private final _FieldCodec[] variableFields;
+    private final int fixedSize;
+    private final MethodHandle constructor; // ()Object
+
+    /**
+     * @return the codec for the type.
+     * 
+     * @throws IllegalArgumentException if the type has no {@link BinaryField}s or
+     *                                  one of them is unsupported.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryCodec<T> of(@NonNull Class<T> type) {
+        return (BinaryCodec<T>) CACHE.get(type);
+    }
+
+    private BinaryCodec(Class<T> type) {
+        this.type = type;
+
+        List<Field> annotated = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(BinaryField.class)) {
+                    annotated.add(field);
+                }
+            }
+        }
+        if (annotated.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no @BinaryField fields");
+        }
+        annotated.sort(Comparator.comparingInt((f) -> f.getAnnotation(BinaryField.class).value()));
+
+        boolean littleEndian = _FieldCodec.isLittleEndian(type, false);
+
+        try {
+            this.fields = new _FieldCodec[annotated.size()];
+            List<_FieldCodec> variable = new ArrayList<>();
+            int fixed = 0;
+
+            for (int idx = 0; idx < this.fields.length; idx++) {
+                Field field = annotated.get(idx);
+                if (idx > 0 && field.getAnnotation(BinaryField.class).value() == annotated.get(idx - 1).getAnnotation(BinaryField.class).value()) {
+                    throw new IllegalArgumentException("Duplicate @BinaryField(" + field.getAnnotation(BinaryField.class).value() + ") in " + type.getName());
+                }
+
+                _FieldCodec codec = _FieldCodec.of(field, littleEndian);
+                this.fields[idx] = codec;
+                if (codec.fixedSize == -1) {
+                    variable.add(codec);
+                } else {
+                    fixed += codec.fixedSize;
+                }
+            }
+
+            this.variableFields = variable.toArray(new _FieldCodec[0]);
+            this.fixedSize = fixed;
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Could not access the fields of " + type.getName(), e);
+        }
+
+        MethodHandle constructor = null;
+        try {
+            Constructor<T> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            constructor = MethodHandles.lookup()
+                .unreflectConstructor(ctor)
+                .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            // Encode-only.
+        }
+        this.constructor = constructor;
+    }
+
+    static boolean isCodecType(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface()) return false;
+
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(BinaryField.class)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the encoded size of value to the sizer.
+     */
+    public ByteSizer size(@NonNull T value, @NonNull ByteSizer sizer) {
+        sizer.bytes(this.fixedSize);
+        for (_FieldCodec field : this.variableFields) {
+            field.size(value, sizer);
+        }
+        return sizer;
+    }
+
+    /**
+     * @return the encoded size of value.
+     */
+    public int size(@NonNull T value) {
+        if (this.variableFields.length == 0) {
+            return this.fixedSize;
+        }
+        return this.size(value, new ByteSizer()).result();
+    }
+
+    public void encode(@NonNull T value, @NonNull ByteWriter writer) throws IOException {
+        for (_FieldCodec field : this.fields) {
+            field.encode(value, writer);
+        }
+    }
+
+    /**
+     * @return value encoded into an exactly sized array.
+     */
+    public byte[] encode(@NonNull T value) {
+        ArrayByteWriter writer = new ArrayByteWriter(this.size(value));
+        try {
+            this.encode(value, writer);
+        } catch (IOException e) {
+            throw new AssertionError(e); // Array writers don't throw.
+        }
+        return writer.buffer();
+    }
+
+    /**
+     * @throws IllegalStateException if the type has no no-args constructor.
+     */
+    public T decode(@NonNull ByteReader reader) throws IOException {
+        if (this.constructor == null) {
+            throw new IllegalStateException(this.type.getName() + " needs a no-args constructor to be decoded");
+        }
+
+        T instance;
+        try {
+            instance = this.type.cast(this.constructor.invokeExact());
+        } catch (Throwable t) {
+            throw _FieldCodec.unchecked(t);
+        }
+
+        for (_FieldCodec field : this.fields) {
+            field.decode(instance, reader);
+        }
+        return instance;
+    }
+
+    public T decode(@NonNull byte[] bytes) throws IOException {
+        return this.decode(new ArrayByteReader(bytes));
+    }
+
+}
@@ -0,0 +1,429 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.codec;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import co.casterlabs.commons.io.bytes.ByteSizer;
+import co.casterlabs.commons.io.bytes.reading.ByteReader;
+import co.casterlabs.commons.io.bytes.writing.ByteWriter;
+
+/**
+ * Encodes and decodes a single field. The accessors are bound once as
+ * MethodHandles adapted to exact primitive types, so there's no boxing and no
+ * reflection on the hot path.
+ */
+abstract class _FieldCodec {
+    final String name;
+    final boolean littleEndian;
+    final MethodHandle getter; // (Object)T
+    final MethodHandle setter; // (Object,T)void
+
+    /**
+     * The encoded size of this field, or -1 if it depends on the value.
+     */
+    final int fixedSize;
+
+    private _FieldCodec(Field field, boolean littleEndian, int fixedSize) throws IllegalAccessException {
+        this.name = field.getDeclaringClass().getName() + '.' + field.getName();
+        this.littleEndian = littleEndian;
+        this.fixedSize = fixedSize;
+
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.getter = lookup.unreflectGetter(field)
+            .asType(MethodType.methodType(field.getType(), Object.class));
+        this.setter = lookup.unreflectSetter(field)
+            .asType(MethodType.methodType(void.class, Object.class, field.getType()));
+    }
+
+    abstract void size(Object instance, ByteSizer sizer);
+
+    abstract void encode(Object instance, ByteWriter writer) throws IOException;
+
+    abstract void decode(Object instance, ByteReader reader) throws IOException;
+
+    final ByteWriter.Endian endian(ByteWriter writer) {
+        return this.littleEndian ? writer.le : writer.be;
+    }
+
+    final ByteReader.Endian endian(ByteReader reader) {
+        return this.littleEndian ? reader.le : reader.be;
+    }
+
+    final <T> T requireNonNull(T value) {
+        if (value == null) {
+            throw new NullPointerException(this.name + " cannot be null");
+        }
+        return value;
+    }
+
+    /**
+     * The handles never throw checked exceptions, so anything they do throw can
+     * be passed through as-is.
+     */
+    static RuntimeException unchecked(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+
+    /**
+     * @return whether the class or field is marked {@link LittleEndian}, or
+     *         fallback if it is marked with neither.
+     */
+    static boolean isLittleEndian(AnnotatedElement element, boolean fallback) {
+        boolean little = element.isAnnotationPresent(LittleEndian.class);
+        boolean big = element.isAnnotationPresent(BigEndian.class);
+
+        if (little && big) {
+            throw new IllegalArgumentException(element + " cannot be both @LittleEndian and @BigEndian");
+        }
+        return little || (!big && fallback);
+    }
+
+    static _FieldCodec of(Field field, boolean classLittleEndian) throws IllegalAccessException {
+        if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+            throw new IllegalArgumentException("@BinaryField " + field + " cannot be static or final");
+        }
+
+        boolean littleEndian = isLittleEndian(field, classLittleEndian);
+
+        Varint varint = field.getAnnotation(Varint.class);
+        Class<?> type = field.getType();
+
+        if (varint != null) {
+            if (type == int.class) return new VarintField(field, varint.zigZag());
+            if (type == long.class) return new VarlongField(field, varint.zigZag());
+            throw new IllegalArgumentException("@Varint is only supported on int and long fields, got " + field);
+        }
+
+        if (type == boolean.class) return new PrimitiveField(field, Primitive.BOOLEAN, littleEndian);
+        if (type == byte.class) return new PrimitiveField(field, Primitive.BYTE, littleEndian);
+        if (type == short.class) return new PrimitiveField(field, Primitive.SHORT, littleEndian);
+        if (type == char.class) return new PrimitiveField(field, Primitive.CHAR, littleEndian);
+        if (type == int.class) return new PrimitiveField(field, Primitive.INT, littleEndian);
+        if (type == long.class) return new PrimitiveField(field, Primitive.LONG, littleEndian);
+        if (type == float.class) return new PrimitiveField(field, Primitive.FLOAT, littleEndian);
+        if (type == double.class) return new PrimitiveField(field, Primitive.DOUBLE, littleEndian);
+        if (type == String.class) return new StringField(field);
+        if (type == byte[].class) return new BytesField(field);
+        if (BinaryCodec.isCodecType(type)) return new NestedField(field);
+
+        throw new IllegalArgumentException("Unsupported @BinaryField type " + type.getName() + " on " + field);
+    }
+
+    /* ---------------- */
+    /* Primitives       */
+    /* ---------------- */
+
+    private static enum Primitive {
+        BOOLEAN(1),
+        BYTE(1),
+        SHORT(2),
+        CHAR(2),
+        INT(4),
+        LONG(8),
+        FLOAT(4),
+        DOUBLE(8);
+
+        private final int size;
+
+        private Primitive(int size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * Every fixed-size primitive goes through here, the byte order is picked once
+     * per call and the handles are still invoked exactly (no boxing).
+     */
+    private static class PrimitiveField extends _FieldCodec {
+        private final Primitive primitive;
+
+        PrimitiveField(Field field, Primitive primitive, boolean littleEndian) throws IllegalAccessException {
+            super(field, littleEndian, primitive.size);
+            this.primitive = primitive;
+        }
+
+        @Override
+        void size(Object instance, ByteSizer sizer) {
+            sizer.bytes(this.fixedSize);
+        }
+
+        @Override
+        void encode(Object instance, ByteWriter writer) throws IOException {
+            ByteWriter.Endian endian = this.endian(writer);
+            try {
+                // @formatter:off
+                switch (this.primitive) {
+                    case BOOLEAN: endian.u8((boolean) this.getter.invokeExact(instance) ? 1 : 0); break;
+                    case BYTE:    endian.s8((byte) this.getter.invokeExact(instance));            break;
+                    case SHORT:   endian.s16((short) this.getter.invokeExact(instance));          break;
+                    case CHAR:    endian.u16((char) this.getter.invokeExact(instance));           break;
+                    case INT:     endian.s32((int) this.getter.invokeExact(instance));            break;
+                    case LONG:    endian.s64((long) this.getter.invokeExact(instance));           break;
+                    case FLOAT:   endian.s32(Float.floatToRawIntBits((float) this.getter.invokeExact(instance)));     break;
+                    case DOUBLE:  endian.s64(Double.doubleToRawLongBits((double) this.getter.invokeExact(instance)));  break;
+                }
+                // @formatter:on
+            } catch (IOException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+
+        @Override
+        void decode(Object instance, ByteReader reader) throws IOException {
+            ByteReader.Endian endian = this.endian(reader);
+            try {
+                // @formatter:off
+                switch (this.primitive) {
+                    case BOOLEAN: this.setter.invokeExact(instance, endian.u8() != 0);     break;
+                    case BYTE:    this.setter.invokeExact(instance, endian.s8());          break;
+                    case SHORT:   this.setter.invokeExact(instance, endian.s16());         break;
+                    case CHAR:    this.setter.invokeExact(instance, (char) endian.u16());  break;
+                    case INT:     this.setter.invokeExact(instance, endian.s32());         break;
+                    case LONG:    this.setter.invokeExact(instance, endian.s64());         break;
+                    case FLOAT:   this.setter.invokeExact(instance, Float.intBitsToFloat(endian.s32()));     break;
+                    case DOUBLE:  this.setter.invokeExact(instance, Double.longBitsToDouble(endian.s64()));  break;
+                }
+                // @formatter:on
+            } catch (IOException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+    }
+
+    /* ---------------- */
+    /* Varints          */
+    /* ---------------- */
+
+    private static class VarintField extends _FieldCodec {
+        private final boolean zigZag;
+
+        VarintField(Field field, boolean zigZag) throws IllegalAccessException {
+            super(field, false, -1);
+            this.zigZag = zigZag;
+        }
+
+        private int get(Object instance) {
+            try {
+                return (int) this.getter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+
+        @Override
+        void size(Object instance, ByteSizer sizer) {
+            if (this.zigZag) {
+                sizer.svarint(this.get(instance));
+            } else {
+                sizer.varint(this.get(instance));
+            }
+        }
+
+        @Override
+        void encode(Object instance, ByteWriter writer) throws IOException {
+            if (this.zigZag) {
+                writer.be.svarint(this.get(instance));
+            } else {
+                writer.be.varint(this.get(instance));
+            }
+        }
+
+        @Override
+        void decode(Object instance, ByteReader reader) throws IOException {
+            int value = this.zigZag ? reader.be.svarint() : reader.be.varint();
+            try {
+                this.setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+    }
+
+    private static class VarlongField extends _FieldCodec {
+        private final boolean zigZag;
+
+        VarlongField(Field field, boolean zigZag) throws IllegalAccessException {
+            super(field, false, -1);
+            this.zigZag = zigZag;
+        }
+
+        private long get(Object instance) {
+            try {
+                return (long) this.getter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+
+        @Override
+        void size(Object instance, ByteSizer sizer) {
+            if (this.zigZag) {
+                sizer.svarlong(this.get(instance));
+            } else {
+                sizer.varlong(this.get(instance));
+            }
+        }
+
+        @Override
+        void encode(Object instance, ByteWriter writer) throws IOException {
+            if (this.zigZag) {
+                writer.be.svarlong(this.get(instance));
+            } else {
+                writer.be.varlong(this.get(instance));
+            }
+        }
+
+        @Override
+        void decode(Object instance, ByteReader reader) throws IOException {
+            long value = this.zigZag ? reader.be.svarlong() : reader.be.varlong();
+            try {
+                this.setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+    }
+
+    /* ---------------- */
+    /* Objects          */
+    /* ---------------- */
+
+    private static class StringField extends _FieldCodec {
+        StringField(Field field) throws IllegalAccessException {
+            super(field, false, -1);
+        }
+
+        private String get(Object instance) {
+            try {
+                return this.requireNonNull((String) this.getter.invokeExact(instance));
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+
+        @Override
+        void size(Object instance, ByteSizer sizer) {
+            sizer.prefixedString(this.get(instance));
+        }
+
+        @Override
+        void encode(Object instance, ByteWriter writer) throws IOException {
+            writer.be.prefixedString(this.get(instance));
+        }
+
+        @Override
+        void decode(Object instance, ByteReader reader) throws IOException {
+            String value = reader.be.prefixedString();
+            try {
+                this.setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+    }
+
+    private static class BytesField extends _FieldCodec {
+        BytesField(Field field) throws IllegalAccessException {
+            super(field, false, -1);
+        }
+
+        private byte[] get(Object instance) {
+            try {
+                return this.requireNonNull((byte[]) this.getter.invokeExact(instance));
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+
+        @Override
+        void size(Object instance, ByteSizer sizer) {
+            sizer.prefixedBytes(this.get(instance).length);
+        }
+
+        @Override
+        void encode(Object instance, ByteWriter writer) throws IOException {
+            byte[] value = this.get(instance);
+            writer.be.prefixedBytes(value, 0, value.length);
+        }
+
+        @Override
+        void decode(Object instance, ByteReader reader) throws IOException {
+            byte[] value = reader.be.prefixedBytes();
+            try {
+                this.setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+    }
+
+    private static class NestedField extends _FieldCodec {
+        private final Class<?> type;
+        private BinaryCodec<Object> codec; // Resolved lazily, the type may refer back to us.
+
+        NestedField(Field field) throws IllegalAccessException {
+            super(field, false, -1);
+            this.type = field.getType();
+        }
+
+        @SuppressWarnings("unchecked")
+        private BinaryCodec<Object> codec() {
+            if (this.codec == null) {
+                this.codec = (BinaryCodec<Object>) BinaryCodec.of(this.type);
+            }
+            return this.codec;
+        }
+
+        private Object get(Object instance) {
+            try {
+                return this.requireNonNull(this.getter.invoke(instance));
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+
+        @Override
+        void size(Object instance, ByteSizer sizer) {
+            this.codec().size(this.get(instance), sizer);
+        }
+
+        @Override
+        void encode(Object instance, ByteWriter writer) throws IOException {
+            this.codec().encode(this.get(instance), writer);
+        }
+
+        @Override
+        void decode(Object instance, ByteReader reader) throws IOException {
+            Object value = this.codec().decode(reader);
+            try {
+                this.setter.invoke(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        }
+    }
+
+}
@@ -12,25 +12,77 @@ See the License for the specific language governing permissions and limitations
 package co.casterlabs.commons.io.bytes.reading;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 
 import co.casterlabs.commons.io.bytes.EndOfStreamException;
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
 
-@RequiredArgsConstructor
 public class ArrayByteReader extends ByteReader {
     private final byte[] bytes;
-    private int index = 0;
+    private int index;
+    private final int end;
+
+    /**
+     * Set when this reader is a {@link #limited(int)} view, reads are mirrored
+     * into the parent so that it continues where we left off.
+     */
+    private final ArrayByteReader parent;
+
+    public ArrayByteReader(@NonNull byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads len bytes of bytes starting at off.
+     */
+    public ArrayByteReader(@NonNull byte[] bytes, int off, int len) {
+        this(bytes, off, len, null);
+        if (off < 0 || len < 0 || off > bytes.length - len) {
+            throw new IndexOutOfBoundsException("Range " + off + "+" + len + " out of bounds for length " + bytes.length);
+        }
+    }
+
+    private ArrayByteReader(byte[] bytes, int off, int len, ArrayByteReader parent) {
+        this.bytes = bytes;
+        this.index = off;
+        this.end = off + len;
+        this.parent = parent;
+    }
+
+    /**
+     * A view over the next len bytes of the same array, no wrapper needed.
+     */
+    @Override
+    ByteReader createLimited(int len) {
+        if (len > this.end - this.index) {
+            return super.createLimited(len); // Let the wrapper report the overrun at read time.
+        }
+        return new ArrayByteReader(this.bytes, this.index, len, this);
+    }
+
+    @Override
+    public long remaining() {
+        return this.end - this.index;
+    }
 
     private void ensureReadable(int len) throws IOException {
-        if (this.index + len > this.bytes.length) {
+        if (len > this.end - this.index) {
             throw new EndOfStreamException("End of stream");
         }
     }
 
+    private void advance(int len) {
+        this.index += len;
+        for (ArrayByteReader p = this.parent; p != null; p = p.parent) {
+            p.index = this.index;
+        }
+    }
+
     @Override
     public void skip(int len) throws IOException {
         ensureReadable(len);
-        this.index += len;
+        this.advance(len);
     }
 
     @Override
@@ -39,7 +91,7 @@ public class ArrayByteReader extends ByteReader {
 
         byte[] buf = new byte[len];
         System.arraycopy(this.bytes, this.index, buf, 0, len);
-        this.index += len;
+        this.advance(len);
         return buf;
     }
 
@@ -48,18 +100,69 @@ public class ArrayByteReader extends ByteReader {
         ensureReadable(len);
 
         System.arraycopy(this.bytes, this.index, b, off, len);
-        this.index += len;
+        this.advance(len);
+    }
+
+    @Override
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+        ensureReadable(len);
+
+        String str = new String(this.bytes, this.index, len, charset);
+        this.advance(len);
+        return str;
     }
 
     @Override
     protected int read() throws IOException {
         ensureReadable(1);
-        return this.bytes[this.index++] & 0xFF;
+        int value = this.bytes[this.index] & 0xFF;
+        this.advance(1);
+        return value;
+    }
+
+    @Override
+    protected int read16(ByteOrder order) throws IOException {
+        ensureReadable(2);
+        short value = order == ByteOrder.BIG_ENDIAN ? (short) SHORT_BE.get(this.bytes, this.index) : (short) SHORT_LE.get(this.bytes, this.index);
+        this.advance(2);
+        return value & 0xFFFF;
+    }
+
+    @Override
+    protected int read24(ByteOrder order) throws IOException {
+        ensureReadable(3);
+        int value;
+        if (order == ByteOrder.BIG_ENDIAN) {
+            value = ((short) SHORT_BE.get(this.bytes, this.index) & 0xFFFF) << 8
+                | (this.bytes[this.index + 2] & 0xFF);
+        } else {
+            value = ((short) SHORT_LE.get(this.bytes, this.index) & 0xFFFF)
+                | (this.bytes[this.index + 2] & 0xFF) << 16;
+        }
+        this.advance(3);
+        return value;
+    }
+
+    @Override
+    protected long read32(ByteOrder order) throws IOException {
+        ensureReadable(4);
+        int value = order == ByteOrder.BIG_ENDIAN ? (int) INT_BE.get(this.bytes, this.index) : (int) INT_LE.get(this.bytes, this.index);
+        this.advance(4);
+        return value & 0xFFFFFFFFL;
+    }
+
+    @Override
+    protected long read64(ByteOrder order) throws IOException {
+        ensureReadable(8);
+        long value = order == ByteOrder.BIG_ENDIAN ? (long) LONG_BE.get(this.bytes, this.index) : (long) LONG_LE.get(this.bytes, this.index);
+        this.advance(8);
+        return value;
     }
 
     @Override
     public void close() throws Exception {
-        this.index = this.bytes.length;
+        this.advance(this.end - this.index);
     }
 
 }
@@ -0,0 +1,127 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.reading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+import co.casterlabs.commons.io.bytes.EndOfStreamException;
+import lombok.NonNull;
+
+/**
+ * Reads directly from a heap, direct or memory-mapped {@link ByteBuffer}
+ * without copying it into a byte[] first.
+ *
+ * @implNote The reader works on a slice of the buffer's remaining bytes, so the
+ *           position, limit and order of the buffer you pass in are never
+ *           modified.
+ */
+public class ByteBufferByteReader extends ByteReader {
+    private final ByteBuffer buffer;
+
+    public ByteBufferByteReader(@NonNull ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public long remaining() {
+        return this.buffer.remaining();
+    }
+
+    private void ensureReadable(int len) throws IOException {
+        if (this.buffer.remaining() < len) {
+            throw new EndOfStreamException("End of stream");
+        }
+    }
+
+    @Override
+    public void skip(int len) throws IOException {
+        ensureReadable(len);
+        this.buffer.position(this.buffer.position() + len);
+    }
+
+    @Override
+    public byte[] read(int len) throws IOException {
+        ensureReadable(len);
+
+        byte[] buf = new byte[len];
+        this.buffer.get(buf, 0, len);
+        return buf;
+    }
+
+    @Override
+    public void read(byte[] b, int off, int len) throws IOException {
+        ensureReadable(len);
+        this.buffer.get(b, off, len);
+    }
+
+    @Override
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+
+        if (!this.buffer.hasArray()) {
+            // Direct buffers have to be copied out, super does that through a reusable
+            // scratch array.
+            return super.readString(len, charset);
+        }
+
+        ensureReadable(len);
+        int position = this.buffer.position();
+        String str = new String(this.buffer.array(), this.buffer.arrayOffset() + position, len, charset);
+        this.buffer.position(position + len);
+        return str;
+    }
+
+    @Override
+    protected int read() throws IOException {
+        ensureReadable(1);
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    protected int read16(ByteOrder order) throws IOException {
+        ensureReadable(2);
+        return this.buffer.order(order).getShort() & 0xFFFF;
+    }
+
+    @Override
+    protected int read24(ByteOrder order) throws IOException {
+        ensureReadable(3);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            return (this.buffer.order(order).getShort() & 0xFFFF) << 8
+                | (this.buffer.get() & 0xFF);
+        } else {
+            return (this.buffer.order(order).getShort() & 0xFFFF)
+                | (this.buffer.get() & 0xFF) << 16;
+        }
+    }
+
+    @Override
+    protected long read32(ByteOrder order) throws IOException {
+        ensureReadable(4);
+        return this.buffer.order(order).getInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    protected long read64(ByteOrder order) throws IOException {
+        ensureReadable(8);
+        return this.buffer.order(order).getLong();
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.buffer.position(this.buffer.limit());
+    }
+
+}
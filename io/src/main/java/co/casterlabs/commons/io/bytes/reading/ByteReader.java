@@ -13,10 +13,30 @@ package co.casterlabs.commons.io.bytes.reading;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 
 import co.casterlabs.commons.io.bytes.EndOfStreamException;
+import lombok.NonNull;
 
 public abstract class ByteReader implements AutoCloseable {
+    static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int BULK_CHUNK_SIZE = 8192;
+    private static final int STRING_SCRATCH_SIZE = 8192;
+
+    private byte[] stringScratch;
+
     public final Endian le = new LittleEndian();
     public final Endian be = new BigEndian();
 
@@ -46,11 +66,124 @@ public abstract class ByteReader implements AutoCloseable {
      */
     public abstract void read(byte[] b, int off, int len) throws IOException;
 
+    /**
+     * Reads len bytes from the source and decodes them as UTF-8.
+     * 
+     * @throws IOException          if an I/O error occurs
+     * @throws EndOfStreamException if the end of the stream is reached
+     */
+    public final String readString(int len) throws IOException {
+        return this.readString(len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads len bytes from the source and decodes them with the given charset.
+     * Implementations that hold the bytes in memory decode them in place, without
+     * copying them into an intermediate byte[] first.
+     * 
+     * @throws IOException          if an I/O error occurs
+     * @throws EndOfStreamException if the end of the stream is reached
+     */
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+
+        if (len > STRING_SCRATCH_SIZE) {
+            return new String(this.read(len), charset);
+        }
+
+        if (this.stringScratch == null) {
+            this.stringScratch = new byte[STRING_SCRATCH_SIZE];
+        }
+
+        this.read(this.stringScratch, 0, len);
+        return new String(this.stringScratch, 0, len, charset);
+    }
+
     /**
      * @return an unsigned 8 bit value, between 0-255
      */
     protected abstract int read() throws IOException;
 
+    /* ---------------- */
+    /* Primitive Hooks  */
+    /* ---------------- */
+
+    /*
+     * These back the methods in Endian. By default they are composed from read(),
+     * but implementations that can access their source directly should override
+     * them to read the whole value at once.
+     */
+
+    /**
+     * @return an unsigned 16 bit value, between 0-65535
+     */
+    protected int read16(ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            return read() << 8
+                | read() << 0;
+        } else {
+            return read() << 0
+                | read() << 8;
+        }
+    }
+
+    /**
+     * @return an unsigned 24 bit value, between 0-16777215
+     */
+    protected int read24(ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            return read() << 16
+                | read() << 8
+                | read() << 0;
+        } else {
+            return read() << 0
+                | read() << 8
+                | read() << 16;
+        }
+    }
+
+    /**
+     * @return an unsigned 32 bit value, between 0-4294967295
+     */
+    protected long read32(ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            return (long) read() << 24
+                | (long) read() << 16
+                | (long) read() << 8
+                | (long) read() << 0;
+        } else {
+            return (long) read() << 0
+                | (long) read() << 8
+                | (long) read() << 16
+                | (long) read() << 24;
+        }
+    }
+
+    /**
+     * @return a 64 bit value.
+     */
+    protected long read64(ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            return (long) read() << 56
+                | (long) read() << 48
+                | (long) read() << 40
+                | (long) read() << 32
+                | (long) read() << 24
+                | (long) read() << 16
+                | (long) read() << 8
+                | (long) read() << 0;
+        } else {
+            return (long) read() << 0
+                | (long) read() << 8
+                | (long) read() << 16
+                | (long) read() << 24
+                | (long) read() << 32
+                | (long) read() << 40
+                | (long) read() << 48
+                | (long) read() << 56;
+        }
+    }
+
     /**
      * @return a reader that can only read up to len bytes. Once the limit is
      *         reached, the reader will throw an IOException. Closing the reader
@@ -59,10 +192,32 @@ public abstract class ByteReader implements AutoCloseable {
      */
     public final ByteReader limited(int len) {
         if (len < 1) throw new IllegalArgumentException("len must be > 0");
+        return this.createLimited(len);
+    }
+
+    /**
+     * Readers that can slice themselves natively override this to skip the
+     * wrapper.
+     */
+    ByteReader createLimited(int len) {
         return new LimitedByteReader(this, len);
     }
 
+    /**
+     * @return the amount of bytes left to read, or -1 if it isn't known (e.g the
+     *         reader is backed by a stream).
+     */
+    public long remaining() {
+        return -1;
+    }
+
     public abstract class Endian {
+        private ByteBuffer bulkScratch;
+
+        /**
+         * @return the byte order used by this Endian.
+         */
+        public abstract ByteOrder order();
 
         /* ---------------- */
         /*     Unsigned     */
@@ -177,78 +332,260 @@ public abstract class ByteReader implements AutoCloseable {
             return this.u64();
         }
 
+        /* ---------------- */
+        /*  Variable-Length */
+        /* ---------------- */
+
+        /**
+         * Reads an unsigned LEB128 value of up to 5 bytes.
+         * 
+         * @return                      the value as 32 bits. Values larger than
+         *                              {@link Integer#MAX_VALUE} will be negative,
+         *                              use {@link Integer#toUnsignedLong(int)} if
+         *                              you need them.
+         * 
+         * @throws IOException          if an I/O error occurs or the varint is
+         *                              malformed
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public int varint() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = u8();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed varint, more than 5 bytes");
+        }
+
+        /**
+         * Reads an unsigned LEB128 value of up to 10 bytes.
+         * 
+         * @return                      the value as 64 bits. You will have to do
+         *                              unsigned operations via {@link Long}!
+         * 
+         * @throws IOException          if an I/O error occurs or the varlong is
+         *                              malformed
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public long varlong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                int b = u8();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed varlong, more than 10 bytes");
+        }
+
+        /**
+         * Reads a zig-zag encoded signed varint.
+         * 
+         * @throws IOException          if an I/O error occurs or the varint is
+         *                              malformed
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public int svarint() throws IOException {
+            int value = this.varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a zig-zag encoded signed varlong.
+         * 
+         * @throws IOException          if an I/O error occurs or the varlong is
+         *                              malformed
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public long svarlong() throws IOException {
+            long value = this.varlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a varint length followed by that many bytes.
+         * 
+         * @throws IOException          if an I/O error occurs or the length is
+         *                              invalid
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public byte[] prefixedBytes() throws IOException {
+            int len = this.varint();
+            if (len < 0) throw new IOException("Length prefix is too large: " + Integer.toUnsignedString(len));
+            return read(len);
+        }
+
+        /**
+         * Reads a varint length followed by that many bytes of UTF-8.
+         * 
+         * @throws IOException          if an I/O error occurs or the length is
+         *                              invalid
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public String prefixedString() throws IOException {
+            int len = this.varint();
+            if (len < 0) throw new IOException("Length prefix is too large: " + Integer.toUnsignedString(len));
+            return readString(len);
+        }
+
+        /* ---------------- */
+        /*       Bulk       */
+        /* ---------------- */
+
+        /**
+         * Reads len signed shorts into dst at offset off.
+         * 
+         * @throws IOException          if an I/O error occurs
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public void readShorts(short[] dst, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, dst.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Short.BYTES);
+                this.fillScratch(count * Short.BYTES).asShortBuffer().get(dst, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Reads len signed ints into dst at offset off.
+         * 
+         * @throws IOException          if an I/O error occurs
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public void readInts(int[] dst, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, dst.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Integer.BYTES);
+                this.fillScratch(count * Integer.BYTES).asIntBuffer().get(dst, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Reads len signed longs into dst at offset off.
+         * 
+         * @throws IOException          if an I/O error occurs
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public void readLongs(long[] dst, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, dst.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Long.BYTES);
+                this.fillScratch(count * Long.BYTES).asLongBuffer().get(dst, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Reads len floats into dst at offset off.
+         * 
+         * @throws IOException          if an I/O error occurs
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public void readFloats(float[] dst, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, dst.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Float.BYTES);
+                this.fillScratch(count * Float.BYTES).asFloatBuffer().get(dst, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Reads len doubles into dst at offset off.
+         * 
+         * @throws IOException          if an I/O error occurs
+         * @throws EndOfStreamException if the end of the stream is reached
+         */
+        public void readDoubles(double[] dst, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, dst.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Double.BYTES);
+                this.fillScratch(count * Double.BYTES).asDoubleBuffer().get(dst, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Reads len bytes into the scratch buffer with one bulk read and returns a
+         * view over them in this Endian's order.
+         */
+        private ByteBuffer fillScratch(int len) throws IOException {
+            if (this.bulkScratch == null) {
+                this.bulkScratch = ByteBuffer.allocate(BULK_CHUNK_SIZE).order(this.order());
+            }
+
+            read(this.bulkScratch.array(), 0, len);
+            this.bulkScratch.limit(len).position(0);
+            return this.bulkScratch;
+        }
+
     }
 
     private class BigEndian extends Endian {
 
+        @Override
+        public ByteOrder order() {
+            return ByteOrder.BIG_ENDIAN;
+        }
+
         @Override
         public int u16() throws IOException {
-            return u8() << 8
-                | u8() << 0;
+            return read16(ByteOrder.BIG_ENDIAN);
         }
 
         @Override
         public int u24() throws IOException {
-            return u8() << 16
-                | u8() << 8
-                | u8() << 0;
+            return read24(ByteOrder.BIG_ENDIAN);
         }
 
         @Override
         public long u32() throws IOException {
-            return (long) u8() << 24
-                | (long) u8() << 16
-                | (long) u8() << 8
-                | (long) u8() << 0;
+            return read32(ByteOrder.BIG_ENDIAN);
         }
 
         @Override
         public long u64() throws IOException {
-            return (long) u8() << 56
-                | (long) u8() << 48
-                | (long) u8() << 40
-                | (long) u8() << 32
-                | (long) u8() << 24
-                | (long) u8() << 16
-                | (long) u8() << 8
-                | (long) u8() << 0;
+            return read64(ByteOrder.BIG_ENDIAN);
         }
 
     }
 
     private class LittleEndian extends Endian {
 
+        @Override
+        public ByteOrder order() {
+            return ByteOrder.LITTLE_ENDIAN;
+        }
+
         @Override
         public int u16() throws IOException {
-            return u8() << 0
-                | u8() << 8;
+            return read16(ByteOrder.LITTLE_ENDIAN);
         }
 
         @Override
         public int u24() throws IOException {
-            return u8() << 0
-                | u8() << 8
-                | u8() << 16;
+            return read24(ByteOrder.LITTLE_ENDIAN);
         }
 
         @Override
         public long u32() throws IOException {
-            return (long) u8() << 0
-                | (long) u8() << 8
-                | (long) u8() << 16
-                | (long) u8() << 24;
+            return read32(ByteOrder.LITTLE_ENDIAN);
         }
 
         @Override
         public long u64() throws IOException {
-            return (long) u8() << 0
-                | (long) u8() << 8
-                | (long) u8() << 16
-                | (long) u8() << 24
-                | (long) u8() << 32
-                | (long) u8() << 40
-                | (long) u8() << 48
-                | (long) u8() << 56;
+            return read64(ByteOrder.LITTLE_ENDIAN);
         }
 
     }
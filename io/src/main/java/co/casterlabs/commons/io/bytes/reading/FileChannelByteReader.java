@@ -0,0 +1,351 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.reading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import co.casterlabs.commons.io.bytes.EndOfStreamException;
+import lombok.NonNull;
+
+/**
+ * A seekable reader over a file. Unlike the other readers you can move around
+ * freely with {@link #position(long)}, read without moving via
+ * {@link #readAt(long, byte[], int, int)} and cut out independent views with
+ * {@link #slice(long, long)}, which makes it suitable for binary searching an
+ * on-disk index without loading it.
+ * 
+ * <p>
+ * The default mode uses positional {@link FileChannel#read(ByteBuffer, long)}s
+ * through an internal buffer. {@link #mapped(FileChannel)} memory-maps the file
+ * instead, in 1 GiB segments so that files larger than 2 GiB work too.
+ *
+ * @implNote The size of the file is captured when the reader is created. This
+ *           class is not thread-safe, use a {@link #slice(long, long)} per
+ *           thread instead.
+ */
+public class FileChannelByteReader extends ByteReader {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    static final long MAP_SEGMENT_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments; // null unless mapped.
+    private final boolean ownsChannel;
+    private final int bufferSize;
+
+    private final long base;
+    private final long length;
+    private long position = 0;
+
+    /**
+     * In positional mode this is our read buffer, in mapped mode it's a view of
+     * the current segment.
+     */
+    private ByteBuffer window;
+    private long windowStart = -1; // Absolute.
+
+    public FileChannelByteReader(@NonNull FileChannel channel) throws IOException {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @throws IllegalArgumentException if bufferSize is smaller than 8, the
+     *                                  largest primitive.
+     */
+    public FileChannelByteReader(@NonNull FileChannel channel, int bufferSize) throws IOException {
+        this(channel, null, true, bufferSize, 0, channel.size());
+    }
+
+    private FileChannelByteReader(FileChannel channel, MappedByteBuffer[] segments, boolean ownsChannel, int bufferSize, long base, long length) {
+        if (bufferSize < Long.BYTES) {
+            throw new IllegalArgumentException("bufferSize must be >= " + Long.BYTES);
+        }
+
+        this.channel = channel;
+        this.segments = segments;
+        this.ownsChannel = ownsChannel;
+        this.bufferSize = bufferSize;
+        this.base = base;
+        this.length = length;
+
+        if (segments == null) {
+            this.window = ByteBuffer.allocate(bufferSize);
+            this.window.limit(0);
+        }
+    }
+
+    /**
+     * @return a reader that memory-maps the file instead of reading it.
+     * 
+     * @implNote Mappings are released when they are garbage collected, not when
+     *           the reader is closed.
+     */
+    public static FileChannelByteReader mapped(@NonNull FileChannel channel) throws IOException {
+        long size = channel.size();
+
+        MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + MAP_SEGMENT_SIZE - 1) / MAP_SEGMENT_SIZE)];
+        for (int idx = 0; idx < segments.length; idx++) {
+            long start = idx * MAP_SEGMENT_SIZE;
+            segments[idx] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAP_SEGMENT_SIZE, size - start));
+        }
+
+        return new FileChannelByteReader(channel, segments, true, DEFAULT_BUFFER_SIZE, 0, size);
+    }
+
+    /* ---------------- */
+    /* Positioning      */
+    /* ---------------- */
+
+    /**
+     * @return the current position, relative to the start of this reader.
+     */
+    public long position() {
+        return this.position;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the position is outside of this reader.
+     */
+    public void position(long position) {
+        if (position < 0 || position > this.length) {
+            throw new IllegalArgumentException("Position " + position + " out of bounds for size " + this.length);
+        }
+        this.position = position;
+    }
+
+    /**
+     * @return the amount of bytes this reader covers.
+     */
+    public long size() {
+        return this.length;
+    }
+
+    @Override
+    public long remaining() {
+        return this.length - this.position;
+    }
+
+    /**
+     * Reads len bytes starting at offset into b, without moving the position.
+     * 
+     * @throws IOException if an I/O error occurs or the range is outside of this
+     *                     reader.
+     */
+    public void readAt(long offset, @NonNull byte[] b, int off, int len) throws IOException {
+        if (offset < 0 || offset > this.length - len) {
+            throw new EndOfStreamException("Range " + offset + "+" + len + " out of bounds for size " + this.length);
+        }
+        this.copy(this.base + offset, b, off, len);
+    }
+
+    /**
+     * @return an independent reader over len bytes starting at offset. It shares
+     *         the channel (and mappings) with this reader but has its own
+     *         position, and closing it does not close the channel.
+     * 
+     * @throws IllegalArgumentException if the range is outside of this reader.
+     */
+    public FileChannelByteReader slice(long offset, long len) {
+        if (offset < 0 || len < 0 || offset > this.length - len) {
+            throw new IllegalArgumentException("Range " + offset + "+" + len + " out of bounds for size " + this.length);
+        }
+        return new FileChannelByteReader(this.channel, this.segments, false, this.bufferSize, this.base + offset, len);
+    }
+
+    /* ---------------- */
+    /* Window           */
+    /* ---------------- */
+
+    private void ensureReadable(long len) throws IOException {
+        if (this.length - this.position < len) {
+            throw new EndOfStreamException("End of stream");
+        }
+    }
+
+    /**
+     * @return the window if [absolute, absolute + len) can be served from it in
+     *         one piece, otherwise null. Callers must have checked that the range
+     *         is readable.
+     */
+    private ByteBuffer windowFor(long absolute, int len) throws IOException {
+        if (this.segments != null) {
+            int segment = (int) (absolute / MAP_SEGMENT_SIZE);
+            long segmentStart = segment * MAP_SEGMENT_SIZE;
+            if (absolute + len > segmentStart + this.segments[segment].limit()) {
+                return null; // Crosses into the next segment.
+            }
+
+            if (this.windowStart != segmentStart) {
+                this.window = this.segments[segment].duplicate();
+                this.windowStart = segmentStart;
+            }
+            return this.window;
+        }
+
+        if (this.windowStart != -1 && absolute >= this.windowStart && absolute + len <= this.windowStart + this.window.limit()) {
+            return this.window;
+        }
+        if (len > this.window.capacity()) {
+            return null;
+        }
+
+        // Refill, but never past the end of this reader.
+        this.window.clear();
+        this.window.limit((int) Math.min(this.window.capacity(), this.base + this.length - absolute));
+        this.windowStart = -1;
+        while (this.window.hasRemaining()) {
+            if (this.channel.read(this.window, absolute + this.window.position()) == -1) {
+                throw new EndOfStreamException("File was truncated");
+            }
+        }
+        this.window.flip();
+        this.windowStart = absolute;
+        return this.window;
+    }
+
+    private void copy(long absolute, byte[] b, int off, int len) throws IOException {
+        if (this.segments == null && len >= this.window.capacity()) {
+            // Too big for the buffer anyways, read directly into the destination.
+            ByteBuffer dst = ByteBuffer.wrap(b, off, len);
+            while (dst.hasRemaining()) {
+                if (this.channel.read(dst, absolute + dst.position() - off) == -1) {
+                    throw new EndOfStreamException("File was truncated");
+                }
+            }
+            return;
+        }
+
+        while (len > 0) {
+            ByteBuffer window = this.windowFor(absolute, 1);
+            int windowPos = (int) (absolute - this.windowStart);
+            int chunk = Math.min(len, window.limit() - windowPos);
+
+            window.position(windowPos);
+            window.get(b, off, chunk);
+
+            absolute += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    /* ---------------- */
+    /* Reading          */
+    /* ---------------- */
+
+    @Override
+    public void skip(int len) throws IOException {
+        if (len < 1) return;
+        ensureReadable(len);
+        this.position += len;
+    }
+
+    @Override
+    public byte[] read(int len) throws IOException {
+        ensureReadable(len);
+
+        byte[] buf = new byte[len];
+        this.read(buf, 0, len);
+        return buf;
+    }
+
+    @Override
+    public void read(byte[] b, int off, int len) throws IOException {
+        if (len < 1) return;
+        ensureReadable(len);
+
+        this.copy(this.base + this.position, b, off, len);
+        this.position += len;
+    }
+
+    @Override
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+        ensureReadable(len);
+
+        ByteBuffer window = len == 0 ? null : this.windowFor(this.base + this.position, len);
+        if (window == null || !window.hasArray()) {
+            return super.readString(len, charset);
+        }
+
+        int windowPos = (int) (this.base + this.position - this.windowStart);
+        String str = new String(window.array(), window.arrayOffset() + windowPos, len, charset);
+        this.position += len;
+        return str;
+    }
+
+    @Override
+    protected int read() throws IOException {
+        ensureReadable(1);
+
+        long absolute = this.base + this.position;
+        ByteBuffer window = this.windowFor(absolute, 1);
+        this.position++;
+        return window.get((int) (absolute - this.windowStart)) & 0xFF;
+    }
+
+    /**
+     * @return the window if len bytes at the current position are contiguous in
+     *         it, otherwise null.
+     */
+    private ByteBuffer contiguous(int len) throws IOException {
+        ensureReadable(len);
+        return this.windowFor(this.base + this.position, len);
+    }
+
+    @Override
+    protected int read16(ByteOrder order) throws IOException {
+        ByteBuffer window = this.contiguous(2);
+        if (window == null) return super.read16(order);
+
+        int value = window.order(order).getShort((int) (this.base + this.position - this.windowStart)) & 0xFFFF;
+        this.position += 2;
+        return value;
+    }
+
+    @Override
+    protected long read32(ByteOrder order) throws IOException {
+        ByteBuffer window = this.contiguous(4);
+        if (window == null) return super.read32(order);
+
+        long value = window.order(order).getInt((int) (this.base + this.position - this.windowStart)) & 0xFFFFFFFFL;
+        this.position += 4;
+        return value;
+    }
+
+    @Override
+    protected long read64(ByteOrder order) throws IOException {
+        ByteBuffer window = this.contiguous(8);
+        if (window == null) return super.read64(order);
+
+        long value = window.order(order).getLong((int) (this.base + this.position - this.windowStart));
+        this.position += 8;
+        return value;
+    }
+
+    /**
+     * Closes the channel, unless this reader is a {@link #slice(long, long)}.
+     */
+    @Override
+    public void close() throws Exception {
+        this.position = this.length;
+        if (this.ownsChannel) {
+            this.channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,301 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.reading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import co.casterlabs.commons.io.bytes.EndOfStreamException;
+import co.casterlabs.commons.io.bytes.NeedMoreDataException;
+import lombok.NonNull;
+
+/**
+ * A reader that never blocks. Input is fed in as it arrives, either from a
+ * (non-blocking) channel with {@link #fill(ReadableByteChannel)} or directly
+ * with {@link #feed(byte[], int, int)}. When a read needs more bytes than have
+ * arrived, it throws {@link NeedMoreDataException} instead of waiting.
+ * 
+ * <p>
+ * Decoders should {@link #mark()} before each message and {@link #reset()} when
+ * they run out of data, so that the partially read message is decoded again
+ * from the start next time:
+ * 
+ * <pre>
+ * reader.fill(channel); // After the selector says it's readable.
+ * while (true) {
+ *     reader.mark();
+ *     try {
+ *         handle(decodeMessage(reader));
+ *     } catch (NeedMoreDataException e) {
+ *         reader.reset();
+ *         break; // Wait for the next select.
+ *     }
+ * }
+ * </pre>
+ * 
+ * Once the end of input has been reached, reads that can't be satisfied throw
+ * {@link EndOfStreamException} like the other readers.
+ */
+public class IncrementalByteReader extends ByteReader {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private byte[] buffer;
+    private int readPos = 0;
+    private int writePos = 0;
+    private int markPos = -1;
+
+    private boolean endOfInput = false;
+
+    public IncrementalByteReader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public IncrementalByteReader(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, Long.BYTES)];
+    }
+
+    /* ---------------- */
+    /* Input            */
+    /* ---------------- */
+
+    /**
+     * Reads whatever the channel has available without blocking (if the channel
+     * is non-blocking).
+     * 
+     * @return             the amount of bytes read, which may be 0, or -1 if the
+     *                     channel reached the end of its input.
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public int fill(@NonNull ReadableByteChannel channel) throws IOException {
+        this.makeRoom(1);
+
+        ByteBuffer dst = ByteBuffer.wrap(this.buffer, this.writePos, this.buffer.length - this.writePos);
+        int read = channel.read(dst);
+        if (read == -1) {
+            this.endOfInput = true;
+        } else {
+            this.writePos += read;
+        }
+        return read;
+    }
+
+    /**
+     * Appends len bytes of b starting at off to the input.
+     */
+    public void feed(@NonNull byte[] b, int off, int len) {
+        this.makeRoom(len);
+        System.arraycopy(b, off, this.buffer, this.writePos, len);
+        this.writePos += len;
+    }
+
+    /**
+     * Appends the remaining bytes of the buffer to the input, consuming them.
+     */
+    public void feed(@NonNull ByteBuffer src) {
+        int len = src.remaining();
+        this.makeRoom(len);
+        src.get(this.buffer, this.writePos, len);
+        this.writePos += len;
+    }
+
+    /**
+     * Signals that no more input will arrive.
+     */
+    public void endOfInput() {
+        this.endOfInput = true;
+    }
+
+    public boolean isEndOfInput() {
+        return this.endOfInput;
+    }
+
+    /**
+     * @return the amount of bytes that can be read without running out.
+     */
+    public int available() {
+        return this.writePos - this.readPos;
+    }
+
+    /**
+     * @return whether or not len bytes can be read without running out.
+     */
+    public boolean has(int len) {
+        return this.writePos - this.readPos >= len;
+    }
+
+    /* ---------------- */
+    /* Cursor           */
+    /* ---------------- */
+
+    /**
+     * Remembers the current position so that {@link #reset()} can return to it.
+     * Bytes after the mark are kept until the next mark or {@link #unmark()}.
+     */
+    public void mark() {
+        this.markPos = this.readPos;
+    }
+
+    /**
+     * Returns to the last {@link #mark()}.
+     * 
+     * @throws IllegalStateException if there is no mark.
+     */
+    public void reset() {
+        if (this.markPos == -1) {
+            throw new IllegalStateException("No mark has been set");
+        }
+        this.readPos = this.markPos;
+    }
+
+    /**
+     * Forgets the mark, allowing the bytes before the current position to be
+     * discarded.
+     */
+    public void unmark() {
+        this.markPos = -1;
+    }
+
+    /**
+     * Makes room for at least len more bytes, first by discarding consumed bytes
+     * and then by growing.
+     */
+    private void makeRoom(int len) {
+        if (this.buffer.length - this.writePos >= len) return;
+
+        int keepFrom = this.markPos == -1 ? this.readPos : this.markPos;
+        int kept = this.writePos - keepFrom;
+
+        if (this.buffer.length - kept < len) {
+            int newCapacity = Math.max(this.buffer.length * 2, kept + len);
+            byte[] grown = new byte[newCapacity];
+            System.arraycopy(this.buffer, keepFrom, grown, 0, kept);
+            this.buffer = grown;
+        } else if (keepFrom > 0) {
+            System.arraycopy(this.buffer, keepFrom, this.buffer, 0, kept);
+        }
+
+        this.readPos -= keepFrom;
+        this.writePos = kept;
+        if (this.markPos != -1) {
+            this.markPos = 0;
+        }
+    }
+
+    private void ensureReadable(int len) throws IOException {
+        if (this.writePos - this.readPos < len) {
+            if (this.endOfInput) {
+                throw new EndOfStreamException("End of stream");
+            }
+            throw new NeedMoreDataException();
+        }
+    }
+
+    /* ---------------- */
+    /* Reading          */
+    /* ---------------- */
+
+    @Override
+    public void skip(int len) throws IOException {
+        if (len < 1) return;
+        ensureReadable(len);
+        this.readPos += len;
+    }
+
+    @Override
+    public byte[] read(int len) throws IOException {
+        ensureReadable(len);
+
+        byte[] buf = Arrays.copyOfRange(this.buffer, this.readPos, this.readPos + len);
+        this.readPos += len;
+        return buf;
+    }
+
+    @Override
+    public void read(byte[] b, int off, int len) throws IOException {
+        ensureReadable(len);
+
+        System.arraycopy(this.buffer, this.readPos, b, off, len);
+        this.readPos += len;
+    }
+
+    @Override
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+        ensureReadable(len);
+
+        String str = new String(this.buffer, this.readPos, len, charset);
+        this.readPos += len;
+        return str;
+    }
+
+    @Override
+    protected int read() throws IOException {
+        ensureReadable(1);
+        return this.buffer[this.readPos++] & 0xFF;
+    }
+
+    @Override
+    protected int read16(ByteOrder order) throws IOException {
+        ensureReadable(2);
+        short value = order == ByteOrder.BIG_ENDIAN ? (short) SHORT_BE.get(this.buffer, this.readPos) : (short) SHORT_LE.get(this.buffer, this.readPos);
+        this.readPos += 2;
+        return value & 0xFFFF;
+    }
+
+    @Override
+    protected int read24(ByteOrder order) throws IOException {
+        ensureReadable(3);
+        int value;
+        if (order == ByteOrder.BIG_ENDIAN) {
+            value = ((short) SHORT_BE.get(this.buffer, this.readPos) & 0xFFFF) << 8
+                | (this.buffer[this.readPos + 2] & 0xFF);
+        } else {
+            value = ((short) SHORT_LE.get(this.buffer, this.readPos) & 0xFFFF)
+                | (this.buffer[this.readPos + 2] & 0xFF) << 16;
+        }
+        this.readPos += 3;
+        return value;
+    }
+
+    @Override
+    protected long read32(ByteOrder order) throws IOException {
+        ensureReadable(4);
+        int value = order == ByteOrder.BIG_ENDIAN ? (int) INT_BE.get(this.buffer, this.readPos) : (int) INT_LE.get(this.buffer, this.readPos);
+        this.readPos += 4;
+        return value & 0xFFFFFFFFL;
+    }
+
+    @Override
+    protected long read64(ByteOrder order) throws IOException {
+        ensureReadable(8);
+        long value = order == ByteOrder.BIG_ENDIAN ? (long) LONG_BE.get(this.buffer, this.readPos) : (long) LONG_LE.get(this.buffer, this.readPos);
+        this.readPos += 8;
+        return value;
+    }
+
+    /**
+     * Discards all buffered input and marks the end of input.
+     */
+    @Override
+    public void close() throws Exception {
+        this.readPos = 0;
+        this.writePos = 0;
+        this.markPos = -1;
+        this.endOfInput = true;
+    }
+
+}
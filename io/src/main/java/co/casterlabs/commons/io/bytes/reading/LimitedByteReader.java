@@ -12,67 +12,125 @@ See the License for the specific language governing permissions and limitations
 package co.casterlabs.commons.io.bytes.reading;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 
 import co.casterlabs.commons.io.bytes.EndOfStreamException;
-import lombok.AllArgsConstructor;
+import lombok.NonNull;
 
-@AllArgsConstructor
 public class LimitedByteReader extends ByteReader {
     private final ByteReader reader;
-    private int limit;
 
-    private void ensureReadable(int len) throws IOException {
-        if (this.limit < len) {
+    /**
+     * Shared by every LimitedByteReader nested on the same source, so that
+     * nesting never costs more than one bounds check per read.
+     */
+    private final Position position;
+    private final long end;
+
+    public LimitedByteReader(@NonNull ByteReader reader, int limit) {
+        if (reader instanceof LimitedByteReader) {
+            // Read from the parent's source directly, its limit still applies to us.
+            LimitedByteReader parent = (LimitedByteReader) reader;
+            this.reader = parent.reader;
+            this.position = parent.position;
+            this.end = Math.min(parent.end, this.position.value + limit);
+        } else {
+            this.reader = reader;
+            this.position = new Position();
+            this.end = limit;
+        }
+    }
+
+    @Override
+    public long remaining() {
+        return Math.max(0, this.end - this.position.value);
+    }
+
+    /**
+     * Checks and consumes len bytes.
+     */
+    private void consume(int len) throws IOException {
+        long newPosition = this.position.value + len;
+        if (newPosition > this.end) {
             throw new EndOfStreamException("End of stream");
         }
+        this.position.value = newPosition;
     }
 
     @Override
     public void skip(int len) throws IOException {
-        ensureReadable(len);
-
         if (len < 1) {
             return;
         }
 
-        this.limit -= len;
+        this.consume(len);
         this.reader.skip(len);
     }
 
     @Override
     public byte[] read(int len) throws IOException {
-        ensureReadable(len);
-
         if (len < 1) {
             return new byte[0];
         }
 
-        byte[] read = this.reader.read(len);
-        this.limit -= len;
-        return read;
+        this.consume(len);
+        return this.reader.read(len);
     }
 
     @Override
     public void read(byte[] b, int off, int len) throws IOException {
-        ensureReadable(len);
-
+        this.consume(len);
         this.reader.read(b, off, len);
-        this.limit -= len;
+    }
+
+    @Override
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+        this.consume(len);
+        return this.reader.readString(len, charset);
     }
 
     @Override
     protected int read() throws IOException {
-        ensureReadable(1);
-        this.limit -= 1;
+        this.consume(1);
         return this.reader.read();
     }
 
+    @Override
+    protected int read16(ByteOrder order) throws IOException {
+        this.consume(2);
+        return this.reader.read16(order);
+    }
+
+    @Override
+    protected int read24(ByteOrder order) throws IOException {
+        this.consume(3);
+        return this.reader.read24(order);
+    }
+
+    @Override
+    protected long read32(ByteOrder order) throws IOException {
+        this.consume(4);
+        return this.reader.read32(order);
+    }
+
+    @Override
+    protected long read64(ByteOrder order) throws IOException {
+        this.consume(8);
+        return this.reader.read64(order);
+    }
+
     /**
      * Consumes all remaining bytes from the stream.
      */
     @Override
     public void close() throws Exception {
-        this.skip(this.limit);
+        this.skip((int) this.remaining());
+    }
+
+    private static class Position {
+        private long value;
     }
 
 }
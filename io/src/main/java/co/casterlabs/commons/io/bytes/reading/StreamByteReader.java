@@ -13,26 +13,108 @@ package co.casterlabs.commons.io.bytes.reading;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 
 import co.casterlabs.commons.io.bytes.EndOfStreamException;
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
 
-@RequiredArgsConstructor
+/**
+ * Reads from an InputStream through an internal buffer, so that primitive
+ * reads are served from memory and the stream is only touched in large
+ * chunks.
+ * 
+ * @implNote The reader will read ahead of what you have consumed, so you should
+ *           not read from the underlying stream directly once it has been
+ *           wrapped.
+ */
 public class StreamByteReader extends ByteReader {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final InputStream stream;
 
+    private final byte[] buffer;
+    private int bufferPos = 0;
+    private int bufferLimit = 0;
+
+    public StreamByteReader(@NonNull InputStream stream) {
+        this(stream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @throws IllegalArgumentException if bufferSize is smaller than 8, the
+     *                                  largest primitive.
+     */
+    public StreamByteReader(@NonNull InputStream stream, int bufferSize) {
+        if (bufferSize < Long.BYTES) {
+            throw new IllegalArgumentException("bufferSize must be >= " + Long.BYTES);
+        }
+
+        this.stream = stream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    private int buffered() {
+        return this.bufferLimit - this.bufferPos;
+    }
+
+    /**
+     * Moves the unconsumed bytes to the start of the buffer.
+     */
+    private void compact() {
+        int buffered = this.buffered();
+        if (this.bufferPos > 0 && buffered > 0) {
+            System.arraycopy(this.buffer, this.bufferPos, this.buffer, 0, buffered);
+        }
+        this.bufferPos = 0;
+        this.bufferLimit = buffered;
+    }
+
+    /**
+     * Compacts the buffer and reads as much as the stream will give us in one go.
+     * 
+     * @return the amount of bytes read, or -1 if the end of the stream was reached.
+     */
+    private int fill() throws IOException {
+        this.compact();
+
+        int read = this.stream.read(this.buffer, this.bufferLimit, this.buffer.length - this.bufferLimit);
+        if (read > 0) {
+            this.bufferLimit += read;
+        }
+        return read;
+    }
+
+    /**
+     * Fills until at least len bytes are buffered.
+     */
+    private void ensureBuffered(int len) throws IOException {
+        while (this.buffered() < len) {
+            if (this.fill() == -1) throw new EndOfStreamException("End of stream");
+        }
+    }
+
     @Override
     public void skip(int len) throws IOException {
         if (len < 1) {
             return;
         }
 
-        long skipped = 0;
+        int fromBuffer = Math.min(len, this.buffered());
+        this.bufferPos += fromBuffer;
+        len -= fromBuffer;
 
-        while (skipped < len) {
-            long round = this.stream.skip(len);
-            if (round == -1) throw new EndOfStreamException("End of stream");
-            skipped += round;
+        while (len > 0) {
+            long skipped = this.stream.skip(len);
+            if (skipped > 0) {
+                len -= skipped;
+            } else {
+                // skip() doesn't report EOF, so we have to check it ourselves.
+                if (this.fill() == -1) throw new EndOfStreamException("End of stream");
+                fromBuffer = Math.min(len, this.buffered());
+                this.bufferPos += fromBuffer;
+                len -= fromBuffer;
+            }
         }
     }
 
@@ -43,34 +125,104 @@ public class StreamByteReader extends ByteReader {
         }
 
         byte[] buf = new byte[len];
-        int total = 0;
-        while (total < len) {
-            int read = this.stream.read(buf, total, len - total);
-            if (read == -1) throw new EndOfStreamException("End of stream");
-            total += read;
-        }
+        this.read(buf, 0, len);
         return buf;
     }
 
     @Override
     public void read(byte[] b, int off, int len) throws IOException {
-        int remaining = len;
-        while (remaining > 0) {
-            int read = this.stream.read(b, off + len - remaining, remaining);
-            if (read == -1) throw new EndOfStreamException("End of stream");
-            remaining -= read;
+        int fromBuffer = Math.min(len, this.buffered());
+        System.arraycopy(this.buffer, this.bufferPos, b, off, fromBuffer);
+        this.bufferPos += fromBuffer;
+        off += fromBuffer;
+        len -= fromBuffer;
+
+        if (len >= this.buffer.length) {
+            // Too large to be worth buffering, read straight into the destination.
+            while (len > 0) {
+                int read = this.stream.read(b, off, len);
+                if (read == -1) throw new EndOfStreamException("End of stream");
+                off += read;
+                len -= read;
+            }
+            return;
         }
+
+        while (len > 0) {
+            if (this.fill() == -1) throw new EndOfStreamException("End of stream");
+
+            int chunk = Math.min(len, this.buffered());
+            System.arraycopy(this.buffer, this.bufferPos, b, off, chunk);
+            this.bufferPos += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public String readString(int len, @NonNull Charset charset) throws IOException {
+        if (len < 0) throw new IllegalArgumentException("len cannot be negative");
+
+        if (len > this.buffer.length) {
+            return super.readString(len, charset);
+        }
+
+        this.ensureBuffered(len);
+        String str = new String(this.buffer, this.bufferPos, len, charset);
+        this.bufferPos += len;
+        return str;
     }
 
     @Override
     protected int read() throws IOException {
-        int read = this.stream.read();
-        if (read == -1) throw new EndOfStreamException("End of stream");
-        return read;
+        if (this.bufferPos == this.bufferLimit) {
+            this.ensureBuffered(1);
+        }
+        return this.buffer[this.bufferPos++] & 0xFF;
+    }
+
+    @Override
+    protected int read16(ByteOrder order) throws IOException {
+        this.ensureBuffered(2);
+        short value = order == ByteOrder.BIG_ENDIAN ? (short) SHORT_BE.get(this.buffer, this.bufferPos) : (short) SHORT_LE.get(this.buffer, this.bufferPos);
+        this.bufferPos += 2;
+        return value & 0xFFFF;
+    }
+
+    @Override
+    protected int read24(ByteOrder order) throws IOException {
+        this.ensureBuffered(3);
+        int value;
+        if (order == ByteOrder.BIG_ENDIAN) {
+            value = ((short) SHORT_BE.get(this.buffer, this.bufferPos) & 0xFFFF) << 8
+                | (this.buffer[this.bufferPos + 2] & 0xFF);
+        } else {
+            value = ((short) SHORT_LE.get(this.buffer, this.bufferPos) & 0xFFFF)
+                | (this.buffer[this.bufferPos + 2] & 0xFF) << 16;
+        }
+        this.bufferPos += 3;
+        return value;
+    }
+
+    @Override
+    protected long read32(ByteOrder order) throws IOException {
+        this.ensureBuffered(4);
+        int value = order == ByteOrder.BIG_ENDIAN ? (int) INT_BE.get(this.buffer, this.bufferPos) : (int) INT_LE.get(this.buffer, this.bufferPos);
+        this.bufferPos += 4;
+        return value & 0xFFFFFFFFL;
+    }
+
+    @Override
+    protected long read64(ByteOrder order) throws IOException {
+        this.ensureBuffered(8);
+        long value = order == ByteOrder.BIG_ENDIAN ? (long) LONG_BE.get(this.buffer, this.bufferPos) : (long) LONG_LE.get(this.buffer, this.bufferPos);
+        this.bufferPos += 8;
+        return value;
     }
 
     @Override
     public void close() throws Exception {
+        this.bufferPos = this.bufferLimit;
         this.stream.close();
     }
 
@@ -12,6 +12,8 @@ See the License for the specific language governing permissions and limitations
 package co.casterlabs.commons.io.bytes.writing;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 public class ArrayByteWriter extends ByteWriter {
     private byte[] buffer;
@@ -25,6 +27,14 @@ public class ArrayByteWriter extends ByteWriter {
         this.buffer = new byte[initialCapacity];
     }
 
+    ArrayByteWriter(byte[] initialBuffer) {
+        this.buffer = initialBuffer;
+    }
+
+    /**
+     * @return a copy of the written bytes, or the backing array itself if it is
+     *         exactly full.
+     */
     public byte[] buffer() {
         if (this.index == this.buffer.length) return this.buffer; // No need to copy.
 
@@ -33,15 +43,56 @@ public class ArrayByteWriter extends ByteWriter {
         return slice;
     }
 
+    /**
+     * @return the backing array. Only the first {@link #size()} bytes are valid,
+     *         and the array is replaced whenever the writer grows.
+     */
+    public byte[] array() {
+        return this.buffer;
+    }
+
+    /**
+     * @return the amount of bytes written so far.
+     */
+    public int size() {
+        return this.index;
+    }
+
+    /**
+     * @return a read-only view of the written bytes, no copy is made. The view is
+     *         only valid until the writer grows.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(this.buffer, 0, this.index).asReadOnlyBuffer();
+    }
+
+    /**
+     * Discards the written bytes so that the backing array can be reused.
+     */
+    public void reset() {
+        this.index = 0;
+    }
+
+    /**
+     * Allocates a larger array and copies the written bytes into it.
+     */
+    byte[] grow(byte[] old, int used, int minCapacity) {
+        byte[] newBuffer = new byte[minCapacity];
+        System.arraycopy(old, 0, newBuffer, 0, used);
+        return newBuffer;
+    }
+
+    void swap(byte[] newBuffer) {
+        this.buffer = newBuffer;
+    }
+
     private void ensureCapacity(int len) {
         if (this.index + len <= this.buffer.length) {
             return;
         }
 
         int newCapacity = Math.max(this.buffer.length * 2, this.index + len);
-        byte[] newBuffer = new byte[newCapacity];
-        System.arraycopy(this.buffer, 0, newBuffer, 0, this.index);
-        this.buffer = newBuffer;
+        this.buffer = this.grow(this.buffer, this.index, newCapacity);
     }
 
     @Override
@@ -57,6 +108,52 @@ public class ArrayByteWriter extends ByteWriter {
         this.buffer[this.index++] = (byte) value;
     }
 
+    @Override
+    protected void write16(int value, ByteOrder order) throws IOException {
+        this.ensureCapacity(2);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            SHORT_BE.set(this.buffer, this.index, (short) value);
+        } else {
+            SHORT_LE.set(this.buffer, this.index, (short) value);
+        }
+        this.index += 2;
+    }
+
+    @Override
+    protected void write24(int value, ByteOrder order) throws IOException {
+        this.ensureCapacity(3);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            SHORT_BE.set(this.buffer, this.index, (short) (value >> 8));
+            this.buffer[this.index + 2] = (byte) value;
+        } else {
+            SHORT_LE.set(this.buffer, this.index, (short) value);
+            this.buffer[this.index + 2] = (byte) (value >> 16);
+        }
+        this.index += 3;
+    }
+
+    @Override
+    protected void write32(long value, ByteOrder order) throws IOException {
+        this.ensureCapacity(4);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            INT_BE.set(this.buffer, this.index, (int) value);
+        } else {
+            INT_LE.set(this.buffer, this.index, (int) value);
+        }
+        this.index += 4;
+    }
+
+    @Override
+    protected void write64(long value, ByteOrder order) throws IOException {
+        this.ensureCapacity(8);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            LONG_BE.set(this.buffer, this.index, value);
+        } else {
+            LONG_LE.set(this.buffer, this.index, value);
+        }
+        this.index += 8;
+    }
+
     @Override
     public void close() throws Exception {
         // NOOP
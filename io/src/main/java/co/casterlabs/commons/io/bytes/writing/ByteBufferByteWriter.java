@@ -0,0 +1,100 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.writing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import co.casterlabs.commons.io.bytes.EndOfStreamException;
+import lombok.NonNull;
+
+/**
+ * Writes directly into a heap, direct or memory-mapped {@link ByteBuffer}.
+ * Once the buffer is full, the writer will throw an
+ * {@link EndOfStreamException}.
+ *
+ * @implNote The writer works on a slice of the buffer's remaining bytes, so the
+ *           position, limit and order of the buffer you pass in are never
+ *           modified. Use {@link #buffer()} to get the written region.
+ */
+public class ByteBufferByteWriter extends ByteWriter {
+    private final ByteBuffer buffer;
+
+    public ByteBufferByteWriter(@NonNull ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    /**
+     * @return a view of the bytes written so far. This shares content with the
+     *         underlying buffer, no copy is made.
+     */
+    public ByteBuffer buffer() {
+        ByteBuffer written = this.buffer.duplicate();
+        written.flip();
+        return written.slice();
+    }
+
+    private void ensureCapacity(int len) throws IOException {
+        if (this.buffer.remaining() < len) {
+            throw new EndOfStreamException("Capacity reached.");
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureCapacity(len);
+        this.buffer.put(b, off, len);
+    }
+
+    @Override
+    protected void write(int value) throws IOException {
+        ensureCapacity(1);
+        this.buffer.put((byte) value);
+    }
+
+    @Override
+    protected void write16(int value, ByteOrder order) throws IOException {
+        ensureCapacity(2);
+        this.buffer.order(order).putShort((short) value);
+    }
+
+    @Override
+    protected void write24(int value, ByteOrder order) throws IOException {
+        ensureCapacity(3);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            this.buffer.order(order).putShort((short) (value >> 8));
+            this.buffer.put((byte) value);
+        } else {
+            this.buffer.order(order).putShort((short) value);
+            this.buffer.put((byte) (value >> 16));
+        }
+    }
+
+    @Override
+    protected void write32(long value, ByteOrder order) throws IOException {
+        ensureCapacity(4);
+        this.buffer.order(order).putInt((int) value);
+    }
+
+    @Override
+    protected void write64(long value, ByteOrder order) throws IOException {
+        ensureCapacity(8);
+        this.buffer.order(order).putLong(value);
+    }
+
+    @Override
+    public void close() throws Exception {
+        // NOOP
+    }
+
+}
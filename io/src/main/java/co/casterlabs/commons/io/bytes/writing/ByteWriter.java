@@ -13,8 +13,34 @@ package co.casterlabs.commons.io.bytes.writing;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import co.casterlabs.commons.io.bytes.ByteSizer;
+import lombok.NonNull;
 
 public abstract class ByteWriter implements AutoCloseable {
+    static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int BULK_CHUNK_SIZE = 8192;
+    private static final int STRING_SCRATCH_SIZE = 8192;
+
+    private ByteBuffer stringScratch;
+    private CharsetEncoder stringEncoder;
+
     public final Endian le = new LittleEndian();
     public final Endian be = new BigEndian();
 
@@ -34,6 +60,158 @@ public abstract class ByteWriter implements AutoCloseable {
 
     protected abstract void write(int value) throws IOException;
 
+    /**
+     * Encodes the value as UTF-8 and writes it, without any length information.
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public final void writeString(@NonNull CharSequence value) throws IOException {
+        this.writeString(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes the value with the given charset and writes it, without any length
+     * information. Unmappable characters are replaced, just like
+     * {@link String#getBytes(Charset)}.
+     * 
+     * @implNote           Runs of ASCII are copied straight through for ASCII
+     *                     compatible charsets, everything else goes through a
+     *                     CharsetEncoder that is reused by this writer. Neither
+     *                     path allocates an intermediate byte[].
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeString(@NonNull CharSequence value, @NonNull Charset charset) throws IOException {
+        if (this.stringScratch == null) {
+            this.stringScratch = ByteBuffer.allocate(STRING_SCRATCH_SIZE);
+        }
+
+        final byte[] scratch = this.stringScratch.array();
+        final int len = value.length();
+        int idx = 0;
+
+        if (charset == StandardCharsets.UTF_8 || charset == StandardCharsets.US_ASCII || charset == StandardCharsets.ISO_8859_1) {
+            while (idx < len) {
+                int max = Math.min(len - idx, scratch.length);
+                int count = 0;
+                while (count < max) {
+                    char c = value.charAt(idx + count);
+                    if (c >= 0x80) break;
+                    scratch[count++] = (byte) c;
+                }
+
+                if (count > 0) {
+                    this.write(scratch, 0, count);
+                    idx += count;
+                }
+                if (count < max) break; // Not ASCII, let the encoder handle the rest.
+            }
+
+            if (idx == len) return;
+        }
+
+        if (this.stringEncoder == null || !this.stringEncoder.charset().equals(charset)) {
+            this.stringEncoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        } else {
+            this.stringEncoder.reset();
+        }
+
+        CharBuffer in = CharBuffer.wrap(value, idx, len);
+        ByteBuffer out = this.stringScratch;
+        out.clear();
+
+        while (this.stringEncoder.encode(in, out, true).isOverflow()) {
+            this.write(scratch, 0, out.position());
+            out.clear();
+        }
+        while (this.stringEncoder.flush(out).isOverflow()) {
+            this.write(scratch, 0, out.position());
+            out.clear();
+        }
+        this.write(scratch, 0, out.position());
+    }
+
+    /**
+     * Pushes any bytes buffered by this writer to the destination. Writers that
+     * do not buffer will do nothing.
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        // NOOP by default.
+    }
+
+    /* ---------------- */
+    /* Primitive Hooks  */
+    /* ---------------- */
+
+    /*
+     * These back the methods in Endian, which have already validated the value.
+     * By default they are composed from write(int), but implementations that can
+     * access their destination directly should override them to write the whole
+     * value at once.
+     */
+
+    protected void write16(int value, ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            write(value >> 8 & 0xFF);
+            write(value & 0xFF);
+        } else {
+            write(value & 0xFF);
+            write(value >> 8 & 0xFF);
+        }
+    }
+
+    protected void write24(int value, ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            write(value >> 16 & 0xFF);
+            write(value >> 8 & 0xFF);
+            write(value & 0xFF);
+        } else {
+            write(value & 0xFF);
+            write(value >> 8 & 0xFF);
+            write(value >> 16 & 0xFF);
+        }
+    }
+
+    protected void write32(long value, ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            write((int) (value >> 24 & 0xFF));
+            write((int) (value >> 16 & 0xFF));
+            write((int) (value >> 8 & 0xFF));
+            write((int) (value & 0xFF));
+        } else {
+            write((int) (value & 0xFF));
+            write((int) (value >> 8 & 0xFF));
+            write((int) (value >> 16 & 0xFF));
+            write((int) (value >> 24 & 0xFF));
+        }
+    }
+
+    protected void write64(long value, ByteOrder order) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            write((int) (value >> 56 & 0xFF));
+            write((int) (value >> 48 & 0xFF));
+            write((int) (value >> 40 & 0xFF));
+            write((int) (value >> 32 & 0xFF));
+            write((int) (value >> 24 & 0xFF));
+            write((int) (value >> 16 & 0xFF));
+            write((int) (value >> 8 & 0xFF));
+            write((int) (value & 0xFF));
+        } else {
+            write((int) (value & 0xFF));
+            write((int) (value >> 8 & 0xFF));
+            write((int) (value >> 16 & 0xFF));
+            write((int) (value >> 24 & 0xFF));
+            write((int) (value >> 32 & 0xFF));
+            write((int) (value >> 40 & 0xFF));
+            write((int) (value >> 48 & 0xFF));
+            write((int) (value >> 56 & 0xFF));
+        }
+    }
+
     /**
      * @return a writer limited to len bytes. Once the limit is reached, the writer
      *         will throw an IOException. Closing the reader will not close the
@@ -46,6 +224,13 @@ public abstract class ByteWriter implements AutoCloseable {
     }
 
     public abstract class Endian {
+        private ByteBuffer bulkScratch;
+
+        /**
+         * @return the byte order used by this Endian.
+         */
+        public abstract ByteOrder order();
+
         /* ---------------- */
         /*     Unsigned     */
         /* ---------------- */
@@ -96,16 +281,15 @@ public abstract class ByteWriter implements AutoCloseable {
          * @throws IOException if an I/O error occurs
          */
         public void flt(float value) throws IOException {
-            int bits = Float.floatToRawIntBits(value);
-            this.u32(bits);
+            // Masked, the raw bits of a negative float are a negative int.
+            ByteWriter.this.write32(Float.floatToRawIntBits(value) & 0xFFFFFFFFL, this.order());
         }
 
         /**
          * @throws IOException if an I/O error occurs
          */
         public void dbl(double value) throws IOException {
-            long bits = Double.doubleToRawLongBits(value);
-            this.u64(bits);
+            ByteWriter.this.write64(Double.doubleToRawLongBits(value), this.order());
         }
 
         /* ---------------- */
@@ -139,84 +323,233 @@ public abstract class ByteWriter implements AutoCloseable {
         public void s64(long value) throws IOException {
             this.u64(value);
         }
+
+        /* ---------------- */
+        /*  Variable-Length */
+        /* ---------------- */
+
+        /**
+         * Writes an unsigned LEB128 value of up to 5 bytes. Negative values are
+         * treated as their unsigned 32 bit counterpart.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void varint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        /**
+         * Writes an unsigned LEB128 value of up to 10 bytes. Negative values are
+         * treated as their unsigned 64 bit counterpart.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void varlong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        /**
+         * Writes a signed value as a zig-zag encoded varint, so that small negative
+         * numbers stay small.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void svarint(int value) throws IOException {
+            this.varint((value << 1) ^ (value >> 31));
+        }
+
+        /**
+         * Writes a signed value as a zig-zag encoded varlong, so that small negative
+         * numbers stay small.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void svarlong(long value) throws IOException {
+            this.varlong((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes len as a varint followed by the bytes.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void prefixedBytes(byte[] b, int off, int len) throws IOException {
+            this.varint(len);
+            write(b, off, len);
+        }
+
+        /**
+         * Writes the UTF-8 length of the string as a varint followed by the UTF-8
+         * bytes.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void prefixedString(@NonNull CharSequence value) throws IOException {
+            this.varint(ByteSizer.utf8Length(value));
+            writeString(value);
+        }
+
+        /* ---------------- */
+        /*       Bulk       */
+        /* ---------------- */
+
+        /**
+         * Writes len shorts from src starting at offset off.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void writeShorts(short[] src, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, src.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Short.BYTES);
+                this.scratch().asShortBuffer().put(src, off, count);
+                write(this.bulkScratch.array(), 0, count * Short.BYTES);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Writes len ints from src starting at offset off.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void writeInts(int[] src, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, src.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Integer.BYTES);
+                this.scratch().asIntBuffer().put(src, off, count);
+                write(this.bulkScratch.array(), 0, count * Integer.BYTES);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Writes len longs from src starting at offset off.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void writeLongs(long[] src, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, src.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Long.BYTES);
+                this.scratch().asLongBuffer().put(src, off, count);
+                write(this.bulkScratch.array(), 0, count * Long.BYTES);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Writes len floats from src starting at offset off.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void writeFloats(float[] src, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, src.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Float.BYTES);
+                this.scratch().asFloatBuffer().put(src, off, count);
+                write(this.bulkScratch.array(), 0, count * Float.BYTES);
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Writes len doubles from src starting at offset off.
+         * 
+         * @throws IOException if an I/O error occurs
+         */
+        public void writeDoubles(double[] src, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, src.length);
+            while (len > 0) {
+                int count = Math.min(len, BULK_CHUNK_SIZE / Double.BYTES);
+                this.scratch().asDoubleBuffer().put(src, off, count);
+                write(this.bulkScratch.array(), 0, count * Double.BYTES);
+                off += count;
+                len -= count;
+            }
+        }
+
+        private ByteBuffer scratch() {
+            if (this.bulkScratch == null) {
+                this.bulkScratch = ByteBuffer.allocate(BULK_CHUNK_SIZE).order(this.order());
+            }
+            return this.bulkScratch;
+        }
+
     }
 
     private class BigEndian extends Endian {
 
+        @Override
+        public ByteOrder order() {
+            return ByteOrder.BIG_ENDIAN;
+        }
+
         @Override
         public void u16(int value) throws IOException {
             if (value < 0 || value > 0xFFFF) throw new IllegalArgumentException("value must be between 0 and 65535");
-            u8(value >> 8 & 0xFF);
-            u8(value & 0xFF);
+            write16(value, ByteOrder.BIG_ENDIAN);
         }
 
         @Override
         public void u24(int value) throws IOException {
             if (value < 0 || value > 0xFFFFFF) throw new IllegalArgumentException("value must be between 0 and 16777215");
-            u8(value >> 16 & 0xFF);
-            u8(value >> 8 & 0xFF);
-            u8(value & 0xFF);
+            write24(value, ByteOrder.BIG_ENDIAN);
         }
 
         @Override
         public void u32(long value) throws IOException {
             if (value < 0 || value > 0xFFFFFFFFL) throw new IllegalArgumentException("value must be between 0 and 4294967295");
-            u8((int) (value >> 24 & 0xFF));
-            u8((int) (value >> 16 & 0xFF));
-            u8((int) (value >> 8 & 0xFF));
-            u8((int) (value & 0xFF));
+            write32(value, ByteOrder.BIG_ENDIAN);
         }
 
         @Override
         public void u64(long value) throws IOException {
-            u8((int) (value >> 56 & 0xFF));
-            u8((int) (value >> 48 & 0xFF));
-            u8((int) (value >> 40 & 0xFF));
-            u8((int) (value >> 32 & 0xFF));
-            u8((int) (value >> 24 & 0xFF));
-            u8((int) (value >> 16 & 0xFF));
-            u8((int) (value >> 8 & 0xFF));
-            u8((int) (value & 0xFF));
+            write64(value, ByteOrder.BIG_ENDIAN);
         }
 
     }
 
     private class LittleEndian extends Endian {
 
+        @Override
+        public ByteOrder order() {
+            return ByteOrder.LITTLE_ENDIAN;
+        }
+
         @Override
         public void u16(int value) throws IOException {
             if (value < 0 || value > 0xFFFF) throw new IllegalArgumentException("value must be between 0 and 65535");
-            u8(value & 0xFF);
-            u8(value >> 8 & 0xFF);
+            write16(value, ByteOrder.LITTLE_ENDIAN);
         }
 
         @Override
         public void u24(int value) throws IOException {
             if (value < 0 || value > 0xFFFFFF) throw new IllegalArgumentException("value must be between 0 and 16777215");
-            u8(value & 0xFF);
-            u8(value >> 8 & 0xFF);
-            u8(value >> 16 & 0xFF);
+            write24(value, ByteOrder.LITTLE_ENDIAN);
         }
 
         @Override
         public void u32(long value) throws IOException {
             if (value < 0 || value > 0xFFFFFFFFL) throw new IllegalArgumentException("value must be between 0 and 4294967295");
-            u8((int) (value & 0xFF));
-            u8((int) (value >> 8 & 0xFF));
-            u8((int) (value >> 16 & 0xFF));
-            u8((int) (value >> 24 & 0xFF));
+            write32(value, ByteOrder.LITTLE_ENDIAN);
         }
 
         @Override
         public void u64(long value) throws IOException {
-            u8((int) (value & 0xFF));
-            u8((int) (value >> 8 & 0xFF));
-            u8((int) (value >> 16 & 0xFF));
-            u8((int) (value >> 24 & 0xFF));
-            u8((int) (value >> 32 & 0xFF));
-            u8((int) (value >> 40 & 0xFF));
-            u8((int) (value >> 48 & 0xFF));
-            u8((int) (value >> 56 & 0xFF));
+            write64(value, ByteOrder.LITTLE_ENDIAN);
         }
 
     }
@@ -12,34 +12,92 @@ See the License for the specific language governing permissions and limitations
 package co.casterlabs.commons.io.bytes.writing;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 
 import co.casterlabs.commons.io.bytes.EndOfStreamException;
-import lombok.AllArgsConstructor;
+import lombok.NonNull;
 
-@AllArgsConstructor
 public class LimitedByteWriter extends ByteWriter {
     private final ByteWriter destination;
-    private int remaining = 0;
 
-    private void ensureCapacity(int len) throws IOException {
-        if (this.remaining < len) {
+    /**
+     * Shared by every LimitedByteWriter nested on the same destination, so that
+     * nesting never costs more than one bounds check per write.
+     */
+    private final Position position;
+    private final long end;
+
+    public LimitedByteWriter(@NonNull ByteWriter destination, int remaining) {
+        if (destination instanceof LimitedByteWriter) {
+            // Write to the parent's destination directly, its limit still applies to us.
+            LimitedByteWriter parent = (LimitedByteWriter) destination;
+            this.destination = parent.destination;
+            this.position = parent.position;
+            this.end = Math.min(parent.end, this.position.value + remaining);
+        } else {
+            this.destination = destination;
+            this.position = new Position();
+            this.end = remaining;
+        }
+    }
+
+    /**
+     * @return the amount of bytes that can still be written.
+     */
+    public int remaining() {
+        return (int) Math.max(0, this.end - this.position.value);
+    }
+
+    /**
+     * Checks and consumes len bytes.
+     */
+    private void consume(int len) throws IOException {
+        long newPosition = this.position.value + len;
+        if (newPosition > this.end) {
             throw new EndOfStreamException("Capacity reached.");
         }
+        this.position.value = newPosition;
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        ensureCapacity(len);
-
+        this.consume(len);
         this.destination.write(b, off, len);
-        this.remaining -= len;
     }
 
     @Override
     protected void write(int value) throws IOException {
-        ensureCapacity(1);
+        this.consume(1);
         this.destination.write(value);
-        this.remaining--;
+    }
+
+    @Override
+    protected void write16(int value, ByteOrder order) throws IOException {
+        this.consume(2);
+        this.destination.write16(value, order);
+    }
+
+    @Override
+    protected void write24(int value, ByteOrder order) throws IOException {
+        this.consume(3);
+        this.destination.write24(value, order);
+    }
+
+    @Override
+    protected void write32(long value, ByteOrder order) throws IOException {
+        this.consume(4);
+        this.destination.write32(value, order);
+    }
+
+    @Override
+    protected void write64(long value, ByteOrder order) throws IOException {
+        this.consume(8);
+        this.destination.write64(value, order);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.destination.flush();
     }
 
     /**
@@ -47,10 +105,15 @@ public class LimitedByteWriter extends ByteWriter {
      */
     @Override
     public void close() throws Exception {
-        if (this.remaining > 0) {
-            this.destination.write(new byte[this.remaining], 0, this.remaining);
-            this.remaining = 0;
+        int remaining = this.remaining();
+        if (remaining > 0) {
+            this.consume(remaining);
+            this.destination.write(new byte[remaining], 0, remaining);
         }
     }
 
+    private static class Position {
+        private long value;
+    }
+
 }
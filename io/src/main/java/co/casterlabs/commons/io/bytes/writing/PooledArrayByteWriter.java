@@ -0,0 +1,78 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.bytes.writing;
+
+import co.casterlabs.commons.io.bytes.BufferPool;
+import lombok.NonNull;
+
+/**
+ * An {@link ArrayByteWriter} that borrows its arrays from a {@link BufferPool}
+ * and gives them back when it grows or is closed. Use {@link #array()} and
+ * {@link #size()} or {@link #asByteBuffer()} to get at the written bytes
+ * without copying them.
+ * 
+ * @apiNote Views of the written bytes are only valid until the writer is
+ *          closed, after which the array belongs to the pool again.
+ */
+public class PooledArrayByteWriter extends ArrayByteWriter {
+    private static final byte[] CLOSED = new byte[0];
+
+    private final BufferPool pool;
+    private boolean closed = false;
+
+    public PooledArrayByteWriter() {
+        this(BufferPool.DEFAULT, 1024);
+    }
+
+    public PooledArrayByteWriter(@NonNull BufferPool pool, int initialCapacity) {
+        super(pool.take(initialCapacity));
+        this.pool = pool;
+    }
+
+    /**
+     * @return a copy of the written bytes. Unlike {@link ArrayByteWriter}, this
+     *         never returns the backing array since it belongs to the pool.
+     */
+    @Override
+    public byte[] buffer() {
+        byte[] copy = new byte[this.size()];
+        System.arraycopy(this.array(), 0, copy, 0, copy.length);
+        return copy;
+    }
+
+    @Override
+    byte[] grow(byte[] old, int used, int minCapacity) {
+        if (this.closed) {
+            throw new IllegalStateException("The writer has been closed.");
+        }
+
+        byte[] newBuffer = this.pool.take(minCapacity);
+        System.arraycopy(old, 0, newBuffer, 0, used);
+        this.pool.give(old);
+        return newBuffer;
+    }
+
+    /**
+     * Gives the backing array back to the pool.
+     */
+    @Override
+    public void close() throws Exception {
+        if (this.closed) return;
+        this.closed = true;
+
+        byte[] buffer = this.array();
+        this.reset();
+        this.swap(CLOSED);
+        this.pool.give(buffer);
+    }
+
+}
@@ -13,26 +13,143 @@ package co.casterlabs.commons.io.bytes.writing;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteOrder;
 
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
 
-@RequiredArgsConstructor
+/**
+ * Writes to an OutputStream through an internal buffer, so that primitive
+ * writes land in memory and the stream is only touched in large chunks.
+ * 
+ * @apiNote Bytes are only guaranteed to reach the stream after
+ *          {@link #flush()} or {@link #close()}.
+ */
 public class StreamByteWriter extends ByteWriter {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final OutputStream stream;
 
+    private final byte[] buffer;
+    private int index = 0;
+
+    public StreamByteWriter(@NonNull OutputStream stream) {
+        this(stream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @throws IllegalArgumentException if bufferSize is smaller than 8, the
+     *                                  largest primitive.
+     */
+    public StreamByteWriter(@NonNull OutputStream stream, int bufferSize) {
+        if (bufferSize < Long.BYTES) {
+            throw new IllegalArgumentException("bufferSize must be >= " + Long.BYTES);
+        }
+
+        this.stream = stream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes out the buffer's contents (without flushing the stream).
+     */
+    private void drain() throws IOException {
+        if (this.index > 0) {
+            this.stream.write(this.buffer, 0, this.index);
+            this.index = 0;
+        }
+    }
+
+    private void ensureCapacity(int len) throws IOException {
+        if (this.index + len > this.buffer.length) {
+            this.drain();
+        }
+    }
+
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        this.stream.write(b, off, len);
+        if (len >= this.buffer.length) {
+            // Too large to be worth buffering, write straight to the stream.
+            this.drain();
+            this.stream.write(b, off, len);
+            return;
+        }
+
+        this.ensureCapacity(len);
+        System.arraycopy(b, off, this.buffer, this.index, len);
+        this.index += len;
     }
 
     @Override
     public void write(int value) throws IOException {
-        this.stream.write(value);
+        this.ensureCapacity(1);
+        this.buffer[this.index++] = (byte) value;
+    }
+
+    @Override
+    protected void write16(int value, ByteOrder order) throws IOException {
+        this.ensureCapacity(2);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            SHORT_BE.set(this.buffer, this.index, (short) value);
+        } else {
+            SHORT_LE.set(this.buffer, this.index, (short) value);
+        }
+        this.index += 2;
+    }
+
+    @Override
+    protected void write24(int value, ByteOrder order) throws IOException {
+        this.ensureCapacity(3);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            SHORT_BE.set(this.buffer, this.index, (short) (value >> 8));
+            this.buffer[this.index + 2] = (byte) value;
+        } else {
+            SHORT_LE.set(this.buffer, this.index, (short) value);
+            this.buffer[this.index + 2] = (byte) (value >> 16);
+        }
+        this.index += 3;
+    }
+
+    @Override
+    protected void write32(long value, ByteOrder order) throws IOException {
+        this.ensureCapacity(4);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            INT_BE.set(this.buffer, this.index, (int) value);
+        } else {
+            INT_LE.set(this.buffer, this.index, (int) value);
+        }
+        this.index += 4;
+    }
+
+    @Override
+    protected void write64(long value, ByteOrder order) throws IOException {
+        this.ensureCapacity(8);
+        if (order == ByteOrder.BIG_ENDIAN) {
+            LONG_BE.set(this.buffer, this.index, value);
+        } else {
+            LONG_LE.set(this.buffer, this.index, value);
+        }
+        this.index += 8;
+    }
+
+    /**
+     * Writes out any buffered bytes and then flushes the stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.drain();
+        this.stream.flush();
     }
 
+    /**
+     * Flushes and then closes the stream.
+     */
     @Override
     public void close() throws Exception {
-        this.stream.close();
+        try {
+            this.flush();
+        } finally {
+            this.stream.close();
+        }
     }
 
 }
@@ -24,4 +24,9 @@ class _AsOutputStream extends OutputStream {
         this.delegate.write(b, off, len);
     }
 
+    @Override
+    public void flush() throws IOException {
+        this.delegate.flush();
+    }
+
 }
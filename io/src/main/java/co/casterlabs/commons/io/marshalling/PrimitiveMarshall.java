@@ -11,10 +11,40 @@ See the License for the specific language governing permissions and limitations
 */
 package co.casterlabs.commons.io.marshalling;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Converts primitives to and from bytes.
+ * 
+ * <p>
+ * The {@code xToBytes}/{@code bytesToX} methods allocate and expect exactly
+ * sized arrays. The {@code putX}/{@code getX} methods work at an offset in an
+ * existing array or {@link ByteBuffer} without allocating, and compile down to
+ * single (unaligned) loads and stores. The byte order of a ByteBuffer is
+ * ignored, this marshall's order is always used.
+ * 
+ * <p>
+ * Only the array conversions need to be implemented, the offset and ByteBuffer
+ * methods default to going through them, and the bulk methods default to
+ * looping over the offset methods. The built-in marshalls override everything
+ * with single loads and stores, and bulk copies.
+ */
 public interface PrimitiveMarshall {
     public static final PrimitiveMarshall BIG_ENDIAN = new _BigEndianPM();
     public static final PrimitiveMarshall LITTLE_ENDIAN = new _LittleEndianPM();
 
+    /**
+     * @return the byte order of this marshall. Defaults to big endian, override
+     *         this if your marshall is anything else. Nothing in this interface
+     *         relies on it, it is only informational.
+     */
+    default ByteOrder order() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+
     /* -------- */
     /* Long     */
     /* -------- */
@@ -33,6 +63,41 @@ public interface PrimitiveMarshall {
      */
     public long bytesToLong(byte[] b);
 
+    /**
+     * Writes v into dst at offset off.
+     */
+    default void putLong(byte[] dst, int off, long v) {
+        System.arraycopy(this.longToBytes(v), 0, dst, off, 8);
+    }
+
+    /**
+     * @return the long in src at offset off.
+     */
+    default long getLong(byte[] src, int off) {
+        return this.bytesToLong(Arrays.copyOfRange(src, off, off + 8));
+    }
+
+    /**
+     * Writes v into dst at index, without moving its position.
+     */
+    default void putLong(ByteBuffer dst, int index, long v) {
+        byte[] b = this.longToBytes(v);
+        for (int idx = 0; idx < 8; idx++) {
+            dst.put(index + idx, b[idx]);
+        }
+    }
+
+    /**
+     * @return the long in src at index, without moving its position.
+     */
+    default long getLong(ByteBuffer src, int index) {
+        byte[] b = new byte[8];
+        for (int idx = 0; idx < 8; idx++) {
+            b[idx] = src.get(index + idx);
+        }
+        return this.bytesToLong(b);
+    }
+
     /**
      * @param  v The double to convert
      * 
@@ -51,6 +116,22 @@ public interface PrimitiveMarshall {
         return Double.longBitsToDouble(this.bytesToLong(b));
     }
 
+    default void putDouble(byte[] dst, int off, double v) {
+        this.putLong(dst, off, Double.doubleToRawLongBits(v));
+    }
+
+    default double getDouble(byte[] src, int off) {
+        return Double.longBitsToDouble(this.getLong(src, off));
+    }
+
+    default void putDouble(ByteBuffer dst, int index, double v) {
+        this.putLong(dst, index, Double.doubleToRawLongBits(v));
+    }
+
+    default double getDouble(ByteBuffer src, int index) {
+        return Double.longBitsToDouble(this.getLong(src, index));
+    }
+
     /* -------- */
     /* Int      */
     /* -------- */
@@ -69,13 +150,48 @@ public interface PrimitiveMarshall {
      */
     public int bytesToInt(byte[] b);
 
+    /**
+     * Writes v into dst at offset off.
+     */
+    default void putInt(byte[] dst, int off, int v) {
+        System.arraycopy(this.intToBytes(v), 0, dst, off, 4);
+    }
+
+    /**
+     * @return the int in src at offset off.
+     */
+    default int getInt(byte[] src, int off) {
+        return this.bytesToInt(Arrays.copyOfRange(src, off, off + 4));
+    }
+
+    /**
+     * Writes v into dst at index, without moving its position.
+     */
+    default void putInt(ByteBuffer dst, int index, int v) {
+        byte[] b = this.intToBytes(v);
+        for (int idx = 0; idx < 4; idx++) {
+            dst.put(index + idx, b[idx]);
+        }
+    }
+
+    /**
+     * @return the int in src at index, without moving its position.
+     */
+    default int getInt(ByteBuffer src, int index) {
+        byte[] b = new byte[4];
+        for (int idx = 0; idx < 4; idx++) {
+            b[idx] = src.get(index + idx);
+        }
+        return this.bytesToInt(b);
+    }
+
     /**
      * @param  v The float to convert
      * 
      * @return   The float, as an array of bytes.
      */
     default byte[] floatToBytes(float v) {
-        return this.longToBytes(Float.floatToRawIntBits(v));
+        return this.intToBytes(Float.floatToRawIntBits(v));
     }
 
     /**
@@ -87,6 +203,22 @@ public interface PrimitiveMarshall {
         return Float.intBitsToFloat(this.bytesToInt(b));
     }
 
+    default void putFloat(byte[] dst, int off, float v) {
+        this.putInt(dst, off, Float.floatToRawIntBits(v));
+    }
+
+    default float getFloat(byte[] src, int off) {
+        return Float.intBitsToFloat(this.getInt(src, off));
+    }
+
+    default void putFloat(ByteBuffer dst, int index, float v) {
+        this.putInt(dst, index, Float.floatToRawIntBits(v));
+    }
+
+    default float getFloat(ByteBuffer src, int index) {
+        return Float.intBitsToFloat(this.getInt(src, index));
+    }
+
     /* -------- */
     /* Short    */
     /* -------- */
@@ -105,6 +237,41 @@ public interface PrimitiveMarshall {
      */
     public short bytesToShort(byte[] b);
 
+    /**
+     * Writes v into dst at offset off.
+     */
+    default void putShort(byte[] dst, int off, short v) {
+        System.arraycopy(this.shortToBytes(v), 0, dst, off, 2);
+    }
+
+    /**
+     * @return the short in src at offset off.
+     */
+    default short getShort(byte[] src, int off) {
+        return this.bytesToShort(Arrays.copyOfRange(src, off, off + 2));
+    }
+
+    /**
+     * Writes v into dst at index, without moving its position.
+     */
+    default void putShort(ByteBuffer dst, int index, short v) {
+        byte[] b = this.shortToBytes(v);
+        for (int idx = 0; idx < 2; idx++) {
+            dst.put(index + idx, b[idx]);
+        }
+    }
+
+    /**
+     * @return the short in src at index, without moving its position.
+     */
+    default short getShort(ByteBuffer src, int index) {
+        byte[] b = new byte[2];
+        for (int idx = 0; idx < 2; idx++) {
+            b[idx] = src.get(index + idx);
+        }
+        return this.bytesToShort(b);
+    }
+
     /**
      * @param  v The char to convert
      * 
@@ -123,6 +290,22 @@ public interface PrimitiveMarshall {
         return (char) this.bytesToShort(b);
     }
 
+    default void putChar(byte[] dst, int off, char v) {
+        this.putShort(dst, off, (short) v);
+    }
+
+    default char getChar(byte[] src, int off) {
+        return (char) this.getShort(src, off);
+    }
+
+    default void putChar(ByteBuffer dst, int index, char v) {
+        this.putShort(dst, index, (short) v);
+    }
+
+    default char getChar(ByteBuffer src, int index) {
+        return (char) this.getShort(src, index);
+    }
+
     /* -------- */
     /* Boolean  */
     /* -------- */
@@ -147,4 +330,118 @@ public interface PrimitiveMarshall {
         return b[0] != 0;
     }
 
+    /* -------- */
+    /* Bulk     */
+    /* -------- */
+
+    /**
+     * Writes len shorts from src starting at srcOff into dst starting at dstOff.
+     */
+    default void encodeShorts(short[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Short.BYTES, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            this.putShort(dst, dstOff + idx * Short.BYTES, src[srcOff + idx]);
+        }
+    }
+
+    /**
+     * Reads len shorts from src starting at srcOff into dst starting at dstOff.
+     */
+    default void decodeShorts(byte[] src, int srcOff, short[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Short.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            dst[dstOff + idx] = this.getShort(src, srcOff + idx * Short.BYTES);
+        }
+    }
+
+    /**
+     * Writes len ints from src starting at srcOff into dst starting at dstOff.
+     */
+    default void encodeInts(int[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Integer.BYTES, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            this.putInt(dst, dstOff + idx * Integer.BYTES, src[srcOff + idx]);
+        }
+    }
+
+    /**
+     * Reads len ints from src starting at srcOff into dst starting at dstOff.
+     */
+    default void decodeInts(byte[] src, int srcOff, int[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Integer.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            dst[dstOff + idx] = this.getInt(src, srcOff + idx * Integer.BYTES);
+        }
+    }
+
+    /**
+     * Writes len longs from src starting at srcOff into dst starting at dstOff.
+     */
+    default void encodeLongs(long[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Long.BYTES, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            this.putLong(dst, dstOff + idx * Long.BYTES, src[srcOff + idx]);
+        }
+    }
+
+    /**
+     * Reads len longs from src starting at srcOff into dst starting at dstOff.
+     */
+    default void decodeLongs(byte[] src, int srcOff, long[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Long.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            dst[dstOff + idx] = this.getLong(src, srcOff + idx * Long.BYTES);
+        }
+    }
+
+    /**
+     * Writes len floats from src starting at srcOff into dst starting at dstOff.
+     */
+    default void encodeFloats(float[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Float.BYTES, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            this.putFloat(dst, dstOff + idx * Float.BYTES, src[srcOff + idx]);
+        }
+    }
+
+    /**
+     * Reads len floats from src starting at srcOff into dst starting at dstOff.
+     */
+    default void decodeFloats(byte[] src, int srcOff, float[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Float.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            dst[dstOff + idx] = this.getFloat(src, srcOff + idx * Float.BYTES);
+        }
+    }
+
+    /**
+     * Writes len doubles from src starting at srcOff into dst starting at dstOff.
+     */
+    default void encodeDoubles(double[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Double.BYTES, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            this.putDouble(dst, dstOff + idx * Double.BYTES, src[srcOff + idx]);
+        }
+    }
+
+    /**
+     * Reads len doubles from src starting at srcOff into dst starting at dstOff.
+     */
+    default void decodeDoubles(byte[] src, int srcOff, double[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Double.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        for (int idx = 0; idx < len; idx++) {
+            dst[dstOff + idx] = this.getDouble(src, srcOff + idx * Double.BYTES);
+        }
+    }
+
 }
@@ -0,0 +1,230 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.marshalling;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * The bulk array conversions behind {@link PrimitiveMarshall}. When the target
+ * order matches the platform's, the arrays are moved with a single bulk copy
+ * through a buffer view. Otherwise we loop over constant VarHandles, which the
+ * JIT turns into byte-swapping loads and stores.
+ */
+class _BulkMarshall {
+    private static final ByteOrder NATIVE = ByteOrder.nativeOrder();
+
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle FLOAT_BE = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle FLOAT_LE = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE_BE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle DOUBLE_LE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /* -------- */
+    /* Shorts   */
+    /* -------- */
+
+    static void encodeShorts(ByteOrder order, short[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Short.BYTES, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(dst, dstOff, len * Short.BYTES).order(order).asShortBuffer().put(src, srcOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                SHORT_BE.set(dst, dstOff + idx * Short.BYTES, src[srcOff + idx]);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                SHORT_LE.set(dst, dstOff + idx * Short.BYTES, src[srcOff + idx]);
+            }
+        }
+    }
+
+    static void decodeShorts(ByteOrder order, byte[] src, int srcOff, short[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Short.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(src, srcOff, len * Short.BYTES).order(order).asShortBuffer().get(dst, dstOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (short) SHORT_BE.get(src, srcOff + idx * Short.BYTES);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (short) SHORT_LE.get(src, srcOff + idx * Short.BYTES);
+            }
+        }
+    }
+
+    /* -------- */
+    /* Ints     */
+    /* -------- */
+
+    static void encodeInts(ByteOrder order, int[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Integer.BYTES, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(dst, dstOff, len * Integer.BYTES).order(order).asIntBuffer().put(src, srcOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                INT_BE.set(dst, dstOff + idx * Integer.BYTES, src[srcOff + idx]);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                INT_LE.set(dst, dstOff + idx * Integer.BYTES, src[srcOff + idx]);
+            }
+        }
+    }
+
+    static void decodeInts(ByteOrder order, byte[] src, int srcOff, int[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Integer.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(src, srcOff, len * Integer.BYTES).order(order).asIntBuffer().get(dst, dstOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (int) INT_BE.get(src, srcOff + idx * Integer.BYTES);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (int) INT_LE.get(src, srcOff + idx * Integer.BYTES);
+            }
+        }
+    }
+
+    /* -------- */
+    /* Longs    */
+    /* -------- */
+
+    static void encodeLongs(ByteOrder order, long[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Long.BYTES, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(dst, dstOff, len * Long.BYTES).order(order).asLongBuffer().put(src, srcOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                LONG_BE.set(dst, dstOff + idx * Long.BYTES, src[srcOff + idx]);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                LONG_LE.set(dst, dstOff + idx * Long.BYTES, src[srcOff + idx]);
+            }
+        }
+    }
+
+    static void decodeLongs(ByteOrder order, byte[] src, int srcOff, long[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Long.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(src, srcOff, len * Long.BYTES).order(order).asLongBuffer().get(dst, dstOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (long) LONG_BE.get(src, srcOff + idx * Long.BYTES);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (long) LONG_LE.get(src, srcOff + idx * Long.BYTES);
+            }
+        }
+    }
+
+    /* -------- */
+    /* Floats   */
+    /* -------- */
+
+    static void encodeFloats(ByteOrder order, float[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Float.BYTES, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(dst, dstOff, len * Float.BYTES).order(order).asFloatBuffer().put(src, srcOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                FLOAT_BE.set(dst, dstOff + idx * Float.BYTES, src[srcOff + idx]);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                FLOAT_LE.set(dst, dstOff + idx * Float.BYTES, src[srcOff + idx]);
+            }
+        }
+    }
+
+    static void decodeFloats(ByteOrder order, byte[] src, int srcOff, float[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Float.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(src, srcOff, len * Float.BYTES).order(order).asFloatBuffer().get(dst, dstOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (float) FLOAT_BE.get(src, srcOff + idx * Float.BYTES);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (float) FLOAT_LE.get(src, srcOff + idx * Float.BYTES);
+            }
+        }
+    }
+
+    /* -------- */
+    /* Doubles  */
+    /* -------- */
+
+    static void encodeDoubles(ByteOrder order, double[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len * Double.BYTES, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(dst, dstOff, len * Double.BYTES).order(order).asDoubleBuffer().put(src, srcOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                DOUBLE_BE.set(dst, dstOff + idx * Double.BYTES, src[srcOff + idx]);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                DOUBLE_LE.set(dst, dstOff + idx * Double.BYTES, src[srcOff + idx]);
+            }
+        }
+    }
+
+    static void decodeDoubles(ByteOrder order, byte[] src, int srcOff, double[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len * Double.BYTES, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+
+        if (order == NATIVE) {
+            ByteBuffer.wrap(src, srcOff, len * Double.BYTES).order(order).asDoubleBuffer().get(dst, dstOff, len);
+        } else if (order == ByteOrder.BIG_ENDIAN) {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (double) DOUBLE_BE.get(src, srcOff + idx * Double.BYTES);
+            }
+        } else {
+            for (int idx = 0; idx < len; idx++) {
+                dst[dstOff + idx] = (double) DOUBLE_LE.get(src, srcOff + idx * Double.BYTES);
+            }
+        }
+    }
+
+}
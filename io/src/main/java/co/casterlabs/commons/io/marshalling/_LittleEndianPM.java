@@ -11,7 +11,24 @@ See the License for the specific language governing permissions and limitations
 */
 package co.casterlabs.commons.io.marshalling;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 class _LittleEndianPM implements PrimitiveMarshall {
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+
+    @Override
+    public ByteOrder order() {
+        return ByteOrder.LITTLE_ENDIAN;
+    }
 
     /* -------- */
     /* Long     */
@@ -19,28 +36,34 @@ class _LittleEndianPM implements PrimitiveMarshall {
 
     @Override
     public byte[] longToBytes(long v) {
-        return new byte[] {
-                (byte) (v >> 0),
-                (byte) (v >> 8),
-                (byte) (v >> 16),
-                (byte) (v >> 24),
-                (byte) (v >> 32),
-                (byte) (v >> 40),
-                (byte) (v >> 48),
-                (byte) (v >> 56),
-        };
+        byte[] b = new byte[Long.BYTES];
+        LONG.set(b, 0, v);
+        return b;
     }
 
     @Override
     public long bytesToLong(byte[] b) {
-        return (((long) b[7]) << 56) |
-            ((b[6] & 0xFFl) << 48) |
-            ((b[5] & 0xFFl) << 40) |
-            ((b[4] & 0xFFl) << 32) |
-            ((b[3] & 0xFFl) << 24) |
-            ((b[2] & 0xFFl) << 16) |
-            ((b[1] & 0xFFl) << 8) |
-            ((b[0] & 0xFFl) << 0);
+        return (long) LONG.get(b, 0);
+    }
+
+    @Override
+    public void putLong(byte[] dst, int off, long v) {
+        LONG.set(dst, off, v);
+    }
+
+    @Override
+    public long getLong(byte[] src, int off) {
+        return (long) LONG.get(src, off);
+    }
+
+    @Override
+    public void putLong(ByteBuffer dst, int index, long v) {
+        BUFFER_LONG.set(dst, index, v);
+    }
+
+    @Override
+    public long getLong(ByteBuffer src, int index) {
+        return (long) BUFFER_LONG.get(src, index);
     }
 
     /* -------- */
@@ -49,20 +72,34 @@ class _LittleEndianPM implements PrimitiveMarshall {
 
     @Override
     public byte[] intToBytes(int v) {
-        return new byte[] {
-                (byte) (v >> 0),
-                (byte) (v >> 8),
-                (byte) (v >> 16),
-                (byte) (v >> 24),
-        };
+        byte[] b = new byte[Integer.BYTES];
+        INT.set(b, 0, v);
+        return b;
     }
 
     @Override
     public int bytesToInt(byte[] b) {
-        return ((b[3]) << 24) |
-            ((b[2] & 0xFF) << 16) |
-            ((b[1] & 0xFF) << 8) |
-            ((b[0] & 0xFF) << 0);
+        return (int) INT.get(b, 0);
+    }
+
+    @Override
+    public void putInt(byte[] dst, int off, int v) {
+        INT.set(dst, off, v);
+    }
+
+    @Override
+    public int getInt(byte[] src, int off) {
+        return (int) INT.get(src, off);
+    }
+
+    @Override
+    public void putInt(ByteBuffer dst, int index, int v) {
+        BUFFER_INT.set(dst, index, v);
+    }
+
+    @Override
+    public int getInt(ByteBuffer src, int index) {
+        return (int) BUFFER_INT.get(src, index);
     }
 
     /* -------- */
@@ -71,16 +108,88 @@ class _LittleEndianPM implements PrimitiveMarshall {
 
     @Override
     public byte[] shortToBytes(short v) {
-        return new byte[] {
-                (byte) (v >> 0),
-                (byte) (v >> 8),
-        };
+        byte[] b = new byte[Short.BYTES];
+        SHORT.set(b, 0, v);
+        return b;
     }
 
     @Override
     public short bytesToShort(byte[] b) {
-        return (short) (((b[1]) << 8) |
-            ((b[0] & 0xFF) << 0));
+        return (short) SHORT.get(b, 0);
+    }
+
+    @Override
+    public void putShort(byte[] dst, int off, short v) {
+        SHORT.set(dst, off, v);
+    }
+
+    @Override
+    public short getShort(byte[] src, int off) {
+        return (short) SHORT.get(src, off);
+    }
+
+    @Override
+    public void putShort(ByteBuffer dst, int index, short v) {
+        BUFFER_SHORT.set(dst, index, v);
+    }
+
+    @Override
+    public short getShort(ByteBuffer src, int index) {
+        return (short) BUFFER_SHORT.get(src, index);
+    }
+
+    /* -------- */
+    /* Bulk     */
+    /* -------- */
+
+    @Override
+    public void encodeShorts(short[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        _BulkMarshall.encodeShorts(ByteOrder.LITTLE_ENDIAN, src, srcOff, len, dst, dstOff);
+    }
+
+    @Override
+    public void decodeShorts(byte[] src, int srcOff, short[] dst, int dstOff, int len) {
+        _BulkMarshall.decodeShorts(ByteOrder.LITTLE_ENDIAN, src, srcOff, dst, dstOff, len);
+    }
+
+    @Override
+    public void encodeInts(int[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        _BulkMarshall.encodeInts(ByteOrder.LITTLE_ENDIAN, src, srcOff, len, dst, dstOff);
+    }
+
+    @Override
+    public void decodeInts(byte[] src, int srcOff, int[] dst, int dstOff, int len) {
+        _BulkMarshall.decodeInts(ByteOrder.LITTLE_ENDIAN, src, srcOff, dst, dstOff, len);
+    }
+
+    @Override
+    public void encodeLongs(long[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        _BulkMarshall.encodeLongs(ByteOrder.LITTLE_ENDIAN, src, srcOff, len, dst, dstOff);
+    }
+
+    @Override
+    public void decodeLongs(byte[] src, int srcOff, long[] dst, int dstOff, int len) {
+        _BulkMarshall.decodeLongs(ByteOrder.LITTLE_ENDIAN, src, srcOff, dst, dstOff, len);
+    }
+
+    @Override
+    public void encodeFloats(float[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        _BulkMarshall.encodeFloats(ByteOrder.LITTLE_ENDIAN, src, srcOff, len, dst, dstOff);
+    }
+
+    @Override
+    public void decodeFloats(byte[] src, int srcOff, float[] dst, int dstOff, int len) {
+        _BulkMarshall.decodeFloats(ByteOrder.LITTLE_ENDIAN, src, srcOff, dst, dstOff, len);
+    }
+
+    @Override
+    public void encodeDoubles(double[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        _BulkMarshall.encodeDoubles(ByteOrder.LITTLE_ENDIAN, src, srcOff, len, dst, dstOff);
+    }
+
+    @Override
+    public void decodeDoubles(byte[] src, int srcOff, double[] dst, int dstOff, int len) {
+        _BulkMarshall.decodeDoubles(ByteOrder.LITTLE_ENDIAN, src, srcOff, dst, dstOff, len);
     }
 
-}
\ No newline at end of file
+}
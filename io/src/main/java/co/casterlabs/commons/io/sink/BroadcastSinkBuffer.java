@@ -0,0 +1,369 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A ring buffer that is written by one producer and read by any number of
+ * consumers, each with their own {@link Cursor}. Data is only ever stored once
+ * no matter how many consumers there are, which makes this ideal for fanning a
+ * single live stream out to many outputs.
+ * 
+ * <p>
+ * Consumers that fall more than {@link #getBufferSize()} bytes behind are
+ * handled according to the {@link LagStrategy}:
+ * <ul>
+ * <li>{@link LagStrategy#SKIP_TO_HEAD}</li>
+ * <li>{@link LagStrategy#DISCONNECT}</li>
+ * <li>{@link LagStrategy#BLOCK_PRODUCER}</li>
+ * </ul>
+ * 
+ * Consumers read with the same {@link ExtractionStrategy}s as a
+ * {@link SinkBuffer}. A new consumer starts at the head, it never sees data that
+ * was inserted before it subscribed.
+ */
+public class BroadcastSinkBuffer implements Closeable {
+
+    /**
+     * If for some reason you need NULL_ON_UNDERRUN to use a different value than 0,
+     * change this. You probably don't need this.
+     */
+    @Deprecated
+    public byte nullValue = 0;
+
+    private @Getter boolean isOpen = true;
+
+    private final LagStrategy lagStrategy;
+    private final ExtractionStrategy extractionStrategy;
+    private final byte[] buffer;
+
+    /**
+     * The total amount of bytes ever inserted. The byte at sequence s lives at
+     * buffer[s % buffer.length].
+     */
+    private long writeSeq = 0;
+
+    private final List<Cursor> cursors = new ArrayList<>();
+
+    /**
+     * @param    bufferSize               the size of the internal buffer, i.e how
+     *                                    far behind a consumer may fall.
+     * @param    lagStrategy
+     * @param    extractionStrategy
+     * 
+     * @throws   IllegalArgumentException if bufferSize is not greater than zero
+     * 
+     * @implNote                          Using both BLOCK_PRODUCER and
+     *                                    BLOCK_ON_UNDERRUN <i>may</i> result in
+     *                                    deadlocks. You have been warned.
+     */
+    public BroadcastSinkBuffer(
+        int bufferSize, @NonNull LagStrategy lagStrategy,
+        @NonNull ExtractionStrategy extractionStrategy
+    ) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size MUST be greater than zero");
+        }
+
+        this.buffer = new byte[bufferSize];
+        this.lagStrategy = lagStrategy;
+        this.extractionStrategy = extractionStrategy;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!this.isOpen) {
+            throw new IOException("The buffer has been closed.");
+        }
+    }
+
+    public int getBufferSize() {
+        return this.buffer.length;
+    }
+
+    /**
+     * @return the amount of consumers that are currently connected.
+     */
+    public synchronized int getConsumerCount() {
+        return this.cursors.size();
+    }
+
+    /**
+     * @return the lag of the slowest consumer, or 0 if there are none.
+     */
+    public synchronized int getMaxLag() {
+        long maxLag = 0;
+        for (Cursor cursor : this.cursors) {
+            maxLag = Math.max(maxLag, this.writeSeq - cursor.readSeq);
+        }
+        return (int) maxLag;
+    }
+
+    /**
+     * Registers a new consumer, starting at the head of the stream.
+     * 
+     * @throws IOException if the buffer has been closed.
+     */
+    public synchronized Cursor subscribe() throws IOException {
+        this.ensureOpen();
+
+        Cursor cursor = new Cursor(this.writeSeq);
+        this.cursors.add(cursor);
+        return cursor;
+    }
+
+    /* ---------------- */
+    /* Insert           */
+    /* ---------------- */
+
+    public void insert(@NonNull byte[] buf) throws InterruptedException, IOException {
+        this.insert(buf, 0, buf.length);
+    }
+
+    /**
+     * Inserts the data once for all consumers. Insertion never fails because of a
+     * lagging consumer, instead the {@link LagStrategy} is applied to it.
+     * 
+     * @throws IOException if the buffer has been closed.
+     */
+    public synchronized void insert(byte[] buf, int bufOffset, int amountToInsert) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        while (amountToInsert > 0) {
+            int chunk;
+            if (this.lagStrategy == LagStrategy.BLOCK_PRODUCER) {
+                int space = this.buffer.length - this.getMaxLag();
+                if (space == 0) {
+                    this.wait(); // Wait for the slowest consumer to catch up.
+                    this.ensureOpen();
+                    continue;
+                }
+                chunk = Math.min(space, amountToInsert);
+            } else {
+                chunk = Math.min(this.buffer.length, amountToInsert);
+                this.handleLaggards(chunk);
+            }
+
+            this.put(buf, bufOffset, chunk);
+            bufOffset += chunk;
+            amountToInsert -= chunk;
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Applies the {@link LagStrategy} to every consumer that would be overrun by
+     * inserting amount more bytes.
+     */
+    private void handleLaggards(int amount) {
+        for (int idx = 0; idx < this.cursors.size(); idx++) {
+            Cursor cursor = this.cursors.get(idx);
+
+            long lag = this.writeSeq - cursor.readSeq;
+            if (lag + amount <= this.buffer.length) continue;
+
+            if (this.lagStrategy == LagStrategy.SKIP_TO_HEAD) {
+                cursor.skipped += lag;
+                cursor.readSeq = this.writeSeq;
+            } else {
+                cursor.connected = false;
+                this.cursors.remove(idx--);
+            }
+        }
+    }
+
+    private void put(byte[] buf, int bufOffset, int amount) {
+        int writePos = (int) (this.writeSeq % this.buffer.length);
+
+        int firstChunk = Math.min(amount, this.buffer.length - writePos);
+        System.arraycopy(buf, bufOffset, this.buffer, writePos, firstChunk);
+        System.arraycopy(buf, bufOffset + firstChunk, this.buffer, 0, amount - firstChunk); // Wrap around.
+
+        this.writeSeq += amount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BroadcastSinkBuffer(capacity=%d, consumers=%d, maxLag=%d, open=%b)", this.buffer.length, this.cursors.size(), this.getMaxLag(), this.isOpen);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.isOpen) return;
+        this.isOpen = false;
+        this.notifyAll();
+    }
+
+    /* ---------------- */
+    /* Consumers        */
+    /* ---------------- */
+
+    /**
+     * A consumer's independent read position in the buffer.
+     */
+    public class Cursor implements Closeable {
+        private long readSeq;
+
+        private long skipped = 0;
+        private boolean connected = true;
+
+        private Cursor(long readSeq) {
+            this.readSeq = readSeq;
+        }
+
+        /**
+         * @return the amount of bytes that have been inserted but not yet read by
+         *         this consumer.
+         */
+        public int getLag() {
+            synchronized (BroadcastSinkBuffer.this) {
+                return (int) (writeSeq - this.readSeq);
+            }
+        }
+
+        /**
+         * @return the total amount of bytes this consumer has lost to
+         *         {@link LagStrategy#SKIP_TO_HEAD}.
+         */
+        public long getSkipped() {
+            synchronized (BroadcastSinkBuffer.this) {
+                return this.skipped;
+            }
+        }
+
+        /**
+         * @return false if this consumer was disconnected by
+         *         {@link LagStrategy#DISCONNECT} or closed.
+         */
+        public boolean isConnected() {
+            synchronized (BroadcastSinkBuffer.this) {
+                return this.connected;
+            }
+        }
+
+        private void ensureReadable() throws IOException {
+            ensureOpen();
+            if (!this.connected) {
+                throw new IOException("The consumer has been disconnected.");
+            }
+        }
+
+        private void take(byte[] buf, int bufOffset, int amount) {
+            int readPos = (int) (this.readSeq % buffer.length);
+
+            int firstChunk = Math.min(amount, buffer.length - readPos);
+            System.arraycopy(buffer, readPos, buf, bufOffset, firstChunk);
+            System.arraycopy(buffer, 0, buf, bufOffset + firstChunk, amount - firstChunk); // Wrap around.
+
+            this.readSeq += amount;
+            if (lagStrategy == LagStrategy.BLOCK_PRODUCER) {
+                BroadcastSinkBuffer.this.notifyAll(); // Wake the producer.
+            }
+        }
+
+        /**
+         * @return                      the amount of bytes placed in buf
+         * 
+         * @throws SinkBuffereringError if there is not enough data in the buffer AND
+         *                              the strategy is
+         *                              {@link ExtractionStrategy#THROW_ON_UNDERRUN}.
+         * 
+         * @throws IOException          if the buffer has been closed or this
+         *                              consumer has been disconnected.
+         */
+        @SuppressWarnings("deprecation")
+        public int extract(byte[] buf, int bufOffset, final int amountToExtract) throws InterruptedException, IOException {
+            synchronized (BroadcastSinkBuffer.this) {
+                this.ensureReadable();
+
+                int available = (int) (writeSeq - this.readSeq);
+                if (available < amountToExtract) {
+                    switch (extractionStrategy) {
+                        case BLOCK_ON_UNDERRUN: {
+                            int remaining = amountToExtract;
+                            while (remaining > 0) {
+                                while ((available = (int) (writeSeq - this.readSeq)) == 0) {
+                                    BroadcastSinkBuffer.this.wait(); // Wait for new data to come in.
+                                    this.ensureReadable();
+                                }
+
+                                int chunk = Math.min(available, remaining);
+                                this.take(buf, bufOffset, chunk);
+                                bufOffset += chunk;
+                                remaining -= chunk;
+                            }
+                            return amountToExtract;
+                        }
+
+                        case THROW_ON_UNDERRUN:
+                            throw new SinkBuffereringError();
+
+                        case NULL_ON_UNDERRUN: {
+                            this.take(buf, bufOffset, available);
+                            for (int idx = bufOffset + available; idx < bufOffset + amountToExtract; idx++) {
+                                buf[idx] = nullValue;
+                            }
+                            return amountToExtract;
+                        }
+
+                        case LOOP_ON_UNDERRUN: {
+                            if (available == 0) {
+                                // Nothing to loop over.
+                                for (int idx = bufOffset; idx < bufOffset + amountToExtract; idx++) {
+                                    buf[idx] = nullValue;
+                                }
+                                return amountToExtract;
+                            }
+
+                            this.take(buf, bufOffset, available);
+                            for (int copied = available; copied < amountToExtract;) {
+                                int len = Math.min(available, amountToExtract - copied);
+                                System.arraycopy(buf, bufOffset, buf, bufOffset + copied, len);
+                                copied += len;
+                            }
+                            return amountToExtract;
+                        }
+
+                        case SHRINK_ON_UNDERRUN:
+                            this.take(buf, bufOffset, available);
+                            return available;
+                    }
+                }
+
+                this.take(buf, bufOffset, amountToExtract);
+                return amountToExtract;
+            }
+        }
+
+        /**
+         * Unsubscribes this consumer. A blocked producer may proceed if this was
+         * the slowest consumer.
+         */
+        @Override
+        public void close() {
+            synchronized (BroadcastSinkBuffer.this) {
+                if (!this.connected) return;
+                this.connected = false;
+                cursors.remove(this);
+                BroadcastSinkBuffer.this.notifyAll();
+            }
+        }
+
+    }
+
+}
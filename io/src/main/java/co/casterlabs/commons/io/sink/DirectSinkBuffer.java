@@ -0,0 +1,556 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * A {@link SinkBuffer} whose ring lives outside of the Java heap, either in
+ * direct memory or in a memory-mapped file. Besides the usual byte[] methods it
+ * can {@link #insert(ByteBuffer)}/{@link #extract(ByteBuffer)} buffers and
+ * move data straight between a channel and the ring with
+ * {@link #transferFrom(ReadableByteChannel, int)} and
+ * {@link #transferTo(WritableByteChannel, int)}, without copying through the
+ * heap.
+ * 
+ * <p>
+ * The strategies behave exactly as they do in {@link SinkBuffer}.
+ * 
+ * @implNote The channel transfers do their I/O outside of the buffer's lock so
+ *           that a slow channel doesn't stall the other side. This means that
+ *           {@link #transferFrom(ReadableByteChannel, int)} must not race with
+ *           other inserts, and {@link #transferTo(WritableByteChannel, int)}
+ *           must not race with other extracts.
+ */
+public class DirectSinkBuffer extends SinkBuffer {
+    /**
+     * The largest ring {@link #mapped(Path, long, InsertionStrategy, ExtractionStrategy)}
+     * can create, just under 2 GiB.
+     */
+    public static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+
+    private final ByteBuffer ring;
+    private final int capacity;
+
+    private int amountBuffered = 0;
+    private int readPos = 0;
+
+    private int waiters = 0;
+    private boolean open = true;
+
+    /**
+     * Allocates the ring in direct memory.
+     * 
+     * @throws IllegalArgumentException if bufferSize is not greater than zero
+     */
+    public DirectSinkBuffer(
+        int bufferSize, @NonNull InsertionStrategy insertionStrategy,
+        @NonNull ExtractionStrategy extractionStrategy
+    ) {
+        this(allocate(bufferSize), insertionStrategy, extractionStrategy);
+    }
+
+    /**
+     * Uses the remaining bytes of storage as the ring, e.g a
+     * {@link java.nio.MappedByteBuffer}.
+     * 
+     * @throws IllegalArgumentException if storage is empty or read-only
+     */
+    public DirectSinkBuffer(
+        @NonNull ByteBuffer storage, @NonNull InsertionStrategy insertionStrategy,
+        @NonNull ExtractionStrategy extractionStrategy
+    ) {
+        super(insertionStrategy, extractionStrategy);
+
+        if (!storage.hasRemaining()) {
+            throw new IllegalArgumentException("Buffer size MUST be greater than zero");
+        }
+        if (storage.isReadOnly()) {
+            throw new IllegalArgumentException("Storage cannot be read-only");
+        }
+
+        this.ring = storage.slice();
+        this.capacity = this.ring.capacity();
+    }
+
+    /**
+     * Creates a buffer whose ring is a memory-mapped file, which lets you buffer
+     * far more than you could keep in memory. The file is created (or truncated)
+     * to bufferSize bytes.
+     * 
+     * <p>
+     * A single mapping (and the int based {@link SinkBuffer} API) tops out at
+     * {@link #MAX_MAPPED_SIZE}. Use {@link ElasticSinkBuffer} if you need to
+     * spill more than that to disk.
+     * 
+     * @throws IllegalArgumentException if bufferSize is not greater than zero or
+     *                                  larger than {@link #MAX_MAPPED_SIZE}
+     * @throws IOException              if the file could not be mapped.
+     */
+    public static DirectSinkBuffer mapped(
+        @NonNull Path file, long bufferSize, @NonNull InsertionStrategy insertionStrategy,
+        @NonNull ExtractionStrategy extractionStrategy
+    ) throws IOException {
+        if (bufferSize <= 0 || bufferSize > MAX_MAPPED_SIZE) {
+            throw new IllegalArgumentException("Buffer size MUST be greater than zero and at most " + MAX_MAPPED_SIZE + " bytes, use an ElasticSinkBuffer for larger spill buffers");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The mapping stays valid after the channel is closed.
+            ByteBuffer storage = channel.map(FileChannel.MapMode.READ_WRITE, 0, bufferSize);
+            return new DirectSinkBuffer(storage, insertionStrategy, extractionStrategy);
+        }
+    }
+
+    private static ByteBuffer allocate(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size MUST be greater than zero");
+        }
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!this.open) {
+            throw new IOException("The buffer has been closed.");
+        }
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return this.capacity;
+    }
+
+    @Override
+    public synchronized int getAmountBuffered() {
+        return this.amountBuffered;
+    }
+
+    /* ---------------- */
+    /* Ring             */
+    /* ---------------- */
+
+    private int free() {
+        return this.capacity - this.amountBuffered;
+    }
+
+    private int writePos() {
+        return (int) (((long) this.readPos + this.amountBuffered) % this.capacity);
+    }
+
+    /**
+     * @return false if the deadline has passed.
+     */
+    private boolean await(boolean inserting, boolean timed, long deadline) throws InterruptedException, IOException {
+        long start = System.nanoTime();
+        this.waiters++;
+        try {
+            if (timed) {
+                long remaining = deadline - start;
+                if (remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } else {
+                this.wait();
+            }
+        } finally {
+            this.waiters--;
+            this.metricBlocked(inserting, System.nanoTime() - start);
+        }
+        this.ensureOpen();
+        return true;
+    }
+
+    private void signal() {
+        if (this.waiters > 0) {
+            this.notifyAll();
+        }
+        this.stateChanged();
+    }
+
+    /**
+     * Copies len bytes from src into the ring at pos, advancing src.
+     */
+    private void copyIn(ByteBuffer src, int pos, int len) {
+        ByteBuffer dst = this.ring.duplicate();
+        dst.position(pos).limit(pos + len);
+
+        int srcLimit = src.limit();
+        src.limit(src.position() + len);
+        dst.put(src);
+        src.limit(srcLimit);
+    }
+
+    /**
+     * Copies len bytes from the ring at pos into dst, advancing dst.
+     */
+    private void copyOut(ByteBuffer dst, int pos, int len) {
+        ByteBuffer src = this.ring.duplicate();
+        src.position(pos).limit(pos + len);
+        dst.put(src);
+    }
+
+    private void put(ByteBuffer src, int len) {
+        if (len == 0) return;
+
+        int writePos = this.writePos();
+        int firstChunk = Math.min(len, this.capacity - writePos);
+        this.copyIn(src, writePos, firstChunk);
+        if (firstChunk < len) {
+            this.copyIn(src, 0, len - firstChunk); // Wrap around.
+        }
+
+        this.amountBuffered += len;
+        this.metricIn(len);
+        this.signal();
+    }
+
+    private void take(ByteBuffer dst, int len) {
+        if (len == 0) return;
+
+        int firstChunk = Math.min(len, this.capacity - this.readPos);
+        this.copyOut(dst, this.readPos, firstChunk);
+        if (firstChunk < len) {
+            this.copyOut(dst, 0, len - firstChunk); // Wrap around.
+        }
+
+        this.readPos = (int) (((long) this.readPos + len) % this.capacity);
+        this.amountBuffered -= len;
+        this.metricOut(len);
+        this.signal();
+    }
+
+    /* ---------------- */
+    /* Insert           */
+    /* ---------------- */
+
+    @Override
+    public void insert(byte[] buf, int bufOffset, int amountToInsert) throws InterruptedException, IOException {
+        this.insert(ByteBuffer.wrap(buf, bufOffset, amountToInsert));
+    }
+
+    @Override
+    public int insert(byte[] buf, int bufOffset, int amountToInsert, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.insert(ByteBuffer.wrap(buf, bufOffset, amountToInsert), timeout, unit);
+    }
+
+    @Override
+    public int tryInsert(byte[] buf, int bufOffset, int amountToInsert) throws IOException {
+        return this.tryInsert(ByteBuffer.wrap(buf, bufOffset, amountToInsert));
+    }
+
+    /**
+     * Inserts the remaining bytes of src, advancing its position. Bytes dropped
+     * by {@link InsertionStrategy#DROP_ON_OVERRUN} are consumed as well.
+     * 
+     * @throws SinkBuffereringError if there is not enough space in the buffer AND
+     *                              the strategy is
+     *                              {@link InsertionStrategy#THROW_ON_OVERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed.
+     */
+    public synchronized void insert(@NonNull ByteBuffer src) throws InterruptedException, IOException {
+        this.insert0(src, false, 0);
+    }
+
+    /**
+     * Like {@link #insert(ByteBuffer)}, but
+     * {@link InsertionStrategy#BLOCK_ON_OVERRUN} gives up once the timeout
+     * elapses, leaving the rest of src unconsumed.
+     * 
+     * @return the amount of bytes inserted.
+     */
+    public synchronized int insert(@NonNull ByteBuffer src, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.insert0(src, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Inserts as much of src as currently fits without ever blocking, regardless
+     * of the strategy.
+     * 
+     * @return the amount of bytes inserted.
+     */
+    public synchronized int tryInsert(@NonNull ByteBuffer src) throws IOException {
+        this.ensureOpen();
+
+        int amount = Math.min(this.free(), src.remaining());
+        this.put(src, amount);
+        return amount;
+    }
+
+    private int insert0(ByteBuffer src, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        int amountToInsert = src.remaining();
+        if (this.free() < amountToInsert) {
+            this.metricOverrun(this.getInsertionStrategy() == InsertionStrategy.DROP_ON_OVERRUN ? amountToInsert - this.free() : 0);
+
+            switch (this.getInsertionStrategy()) {
+                case BLOCK_ON_OVERRUN: {
+                    final long deadline = System.nanoTime() + timeoutNanos;
+
+                    while (src.hasRemaining()) {
+                        if (this.free() == 0) {
+                            // Wait for data to be consumed.
+                            if (!this.await(true, timed, deadline)) break;
+                            continue;
+                        }
+                        this.put(src, Math.min(this.free(), src.remaining()));
+                    }
+                    return amountToInsert - src.remaining();
+                }
+
+                case DROP_ON_OVERRUN: {
+                    int amount = this.free();
+                    this.put(src, amount);
+                    src.position(src.limit());
+                    return amount;
+                }
+
+                case THROW_ON_OVERRUN:
+                    throw new SinkBuffereringError();
+            }
+        }
+
+        this.put(src, amountToInsert);
+        return amountToInsert;
+    }
+
+    /**
+     * Reads from the channel directly into the ring, at most max bytes and at
+     * most the free space. When the ring is full,
+     * {@link InsertionStrategy#BLOCK_ON_OVERRUN} waits for space and the other
+     * strategies transfer nothing.
+     * 
+     * @return             the amount of bytes transferred, or -1 if the channel
+     *                     reached the end of its input.
+     * 
+     * @throws IOException if an I/O error occurs or the buffer has been closed.
+     */
+    public int transferFrom(@NonNull ReadableByteChannel channel, int max) throws InterruptedException, IOException {
+        int writePos;
+        int contiguous;
+        synchronized (this) {
+            this.ensureOpen();
+            while (this.free() == 0) {
+                if (this.getInsertionStrategy() != InsertionStrategy.BLOCK_ON_OVERRUN) return 0;
+                this.await(true, false, 0);
+            }
+
+            writePos = this.writePos();
+            contiguous = Math.min(max, Math.min(this.free(), this.capacity - writePos));
+        }
+
+        ByteBuffer region = this.ring.duplicate();
+        region.position(writePos).limit(writePos + contiguous);
+        int read = channel.read(region);
+
+        if (read > 0) {
+            synchronized (this) {
+                this.amountBuffered += read;
+                this.metricIn(read);
+                this.signal();
+            }
+        }
+        return read;
+    }
+
+    /* ---------------- */
+    /* Extract          */
+    /* ---------------- */
+
+    @Override
+    public int extract(byte[] buf, int bufOffset, int amountToExtract) throws InterruptedException, IOException {
+        return this.extract(ByteBuffer.wrap(buf, bufOffset, amountToExtract));
+    }
+
+    @Override
+    public int extract(byte[] buf, int bufOffset, int amountToExtract, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.extract(ByteBuffer.wrap(buf, bufOffset, amountToExtract), timeout, unit);
+    }
+
+    @Override
+    public int tryExtract(byte[] buf, int bufOffset, int amountToExtract) throws IOException {
+        return this.tryExtract(ByteBuffer.wrap(buf, bufOffset, amountToExtract));
+    }
+
+    /**
+     * Fills the remaining space of dst, advancing its position.
+     * 
+     * @return                      the amount of bytes placed in dst
+     * 
+     * @throws SinkBuffereringError if there is not enough data in the buffer AND
+     *                              the strategy is
+     *                              {@link ExtractionStrategy#THROW_ON_UNDERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed.
+     */
+    public synchronized int extract(@NonNull ByteBuffer dst) throws InterruptedException, IOException {
+        return this.extract0(dst, false, 0);
+    }
+
+    /**
+     * Like {@link #extract(ByteBuffer)}, but
+     * {@link ExtractionStrategy#BLOCK_ON_UNDERRUN} gives up once the timeout
+     * elapses.
+     * 
+     * @return the amount of bytes placed in dst
+     */
+    public synchronized int extract(@NonNull ByteBuffer dst, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.extract0(dst, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Extracts whatever is currently buffered (up to the remaining space of dst)
+     * without ever blocking, regardless of the strategy.
+     * 
+     * @return the amount of bytes placed in dst
+     */
+    public synchronized int tryExtract(@NonNull ByteBuffer dst) throws IOException {
+        this.ensureOpen();
+
+        int amount = Math.min(this.amountBuffered, dst.remaining());
+        this.take(dst, amount);
+        return amount;
+    }
+
+    @SuppressWarnings("deprecation")
+    private int extract0(ByteBuffer dst, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        final int amountToExtract = dst.remaining();
+        if (this.amountBuffered < amountToExtract) {
+            boolean pads = this.getExtractionStrategy() == ExtractionStrategy.NULL_ON_UNDERRUN || this.getExtractionStrategy() == ExtractionStrategy.LOOP_ON_UNDERRUN;
+            this.metricUnderrun(pads ? amountToExtract - this.amountBuffered : 0);
+
+            switch (this.getExtractionStrategy()) {
+                case BLOCK_ON_UNDERRUN: {
+                    final long deadline = System.nanoTime() + timeoutNanos;
+
+                    while (dst.hasRemaining()) {
+                        if (this.amountBuffered == 0) {
+                            // Wait for new data to come in.
+                            if (!this.await(false, timed, deadline)) break;
+                            continue;
+                        }
+                        this.take(dst, Math.min(this.amountBuffered, dst.remaining()));
+                    }
+                    return amountToExtract - dst.remaining();
+                }
+
+                case THROW_ON_UNDERRUN:
+                    throw new SinkBuffereringError();
+
+                case NULL_ON_UNDERRUN: {
+                    this.take(dst, this.amountBuffered);
+                    while (dst.hasRemaining()) {
+                        dst.put(this.nullValue);
+                    }
+                    return amountToExtract;
+                }
+
+                case LOOP_ON_UNDERRUN: {
+                    int contentsLength = this.amountBuffered;
+                    if (contentsLength == 0) {
+                        // Nothing to loop over.
+                        while (dst.hasRemaining()) {
+                            dst.put(this.nullValue);
+                        }
+                        return amountToExtract;
+                    }
+
+                    int contentsStart = dst.position();
+                    this.take(dst, contentsLength);
+                    while (dst.hasRemaining()) {
+                        ByteBuffer contents = dst.duplicate();
+                        contents.position(contentsStart).limit(contentsStart + Math.min(contentsLength, dst.remaining()));
+                        dst.put(contents);
+                    }
+                    return amountToExtract;
+                }
+
+                case SHRINK_ON_UNDERRUN: {
+                    int available = this.amountBuffered;
+                    this.take(dst, available);
+                    return available;
+                }
+            }
+        }
+
+        this.take(dst, amountToExtract);
+        return amountToExtract;
+    }
+
+    /**
+     * Writes from the ring directly to the channel, at most max bytes. When the
+     * ring is empty, {@link ExtractionStrategy#BLOCK_ON_UNDERRUN} waits for data
+     * and the other strategies transfer nothing.
+     * 
+     * @return             the amount of bytes transferred.
+     * 
+     * @throws IOException if an I/O error occurs or the buffer has been closed.
+     */
+    public int transferTo(@NonNull WritableByteChannel channel, int max) throws InterruptedException, IOException {
+        int readPos;
+        int contiguous;
+        synchronized (this) {
+            this.ensureOpen();
+            while (this.amountBuffered == 0) {
+                if (this.getExtractionStrategy() != ExtractionStrategy.BLOCK_ON_UNDERRUN) return 0;
+                this.await(false, false, 0);
+            }
+
+            readPos = this.readPos;
+            contiguous = Math.min(max, Math.min(this.amountBuffered, this.capacity - readPos));
+        }
+
+        ByteBuffer region = this.ring.duplicate();
+        region.position(readPos).limit(readPos + contiguous);
+        int written = channel.write(region);
+
+        if (written > 0) {
+            synchronized (this) {
+                this.readPos = (int) (((long) this.readPos + written) % this.capacity);
+                this.amountBuffered -= written;
+                this.metricOut(written);
+                this.signal();
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("DirectSinkBuffer(capacity=%d, buffered=%d, open=%b)", this.capacity, this.amountBuffered, this.open);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.open) return;
+        this.open = false;
+        this.notifyAll();
+        this.readiness.close();
+    }
+
+}
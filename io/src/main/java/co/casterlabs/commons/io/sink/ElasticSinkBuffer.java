@@ -0,0 +1,529 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.commons.io.bytes.BufferPool;
+import lombok.NonNull;
+
+/**
+ * A {@link SinkBuffer} that starts out empty and grows in segments as data
+ * comes in, up to a memory cap. Past the memory cap data is spilled to a
+ * temporary file (up to a spill cap), and only once that is full does the
+ * {@link InsertionStrategy} kick in. Memory segments are given back as they are
+ * drained, so a stall only costs memory for as long as it lasts.
+ * 
+ * <p>
+ * Data is always extracted in the order it was inserted: once something has
+ * been spilled, everything after it is spilled too until the consumer has
+ * caught up with the file.
+ * 
+ * @implNote The spill file is a ring of at most spillCap bytes, created on the
+ *           first spill and deleted on {@link #close()}. Since the
+ *           {@link SinkBuffer} API is int-based, {@link #getBufferSize()} and
+ *           {@link #getAmountBuffered()} saturate at {@link Integer#MAX_VALUE};
+ *           see {@link #getSpilledBytes()} for the exact figure.
+ */
+public class ElasticSinkBuffer extends SinkBuffer {
+    private final BufferPool pool = BufferPool.DEFAULT;
+    private final int segmentSize;
+    private final int memoryCap;
+    private final long spillCap;
+    private final @Nullable Path spillDirectory;
+
+    private final ArrayDeque<byte[]> segments = new ArrayDeque<>();
+    private int headOffset = 0; // Read offset in the first segment.
+    private int tailOffset = 0; // Write offset in the last segment.
+    private int memoryBuffered = 0;
+
+    private FileChannel spill;
+    private long spillReadPos = 0;
+    private long spillBuffered = 0;
+
+    private int waiters = 0;
+    private boolean open = true;
+
+    /**
+     * Creates a buffer that never spills to disk.
+     * 
+     * @throws IllegalArgumentException if segmentSize or memoryCap are not
+     *                                  greater than zero
+     */
+    public ElasticSinkBuffer(
+        int segmentSize, int memoryCap, @NonNull InsertionStrategy insertionStrategy,
+        @NonNull ExtractionStrategy extractionStrategy
+    ) {
+        this(segmentSize, memoryCap, 0, null, insertionStrategy, extractionStrategy);
+    }
+
+    /**
+     * @param  segmentSize              the size of each memory segment.
+     * @param  memoryCap                the most bytes to keep in memory.
+     * @param  spillCap                 the most bytes to spill to disk, 0 to never
+     *                                  spill.
+     * @param  spillDirectory           where to create the spill file, null for
+     *                                  the system's temp directory.
+     * 
+     * @throws IllegalArgumentException if segmentSize or memoryCap are not
+     *                                  greater than zero, or if spillCap is
+     *                                  negative
+     */
+    public ElasticSinkBuffer(
+        int segmentSize, int memoryCap, long spillCap, @Nullable Path spillDirectory,
+        @NonNull InsertionStrategy insertionStrategy, @NonNull ExtractionStrategy extractionStrategy
+    ) {
+        super(insertionStrategy, extractionStrategy);
+
+        if (segmentSize <= 0 || memoryCap <= 0) {
+            throw new IllegalArgumentException("Segment size and memory cap MUST be greater than zero");
+        }
+        if (spillCap < 0) {
+            throw new IllegalArgumentException("Spill cap cannot be negative");
+        }
+
+        this.segmentSize = segmentSize;
+        this.memoryCap = memoryCap;
+        this.spillCap = spillCap;
+        this.spillDirectory = spillDirectory;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!this.open) {
+            throw new IOException("The buffer has been closed.");
+        }
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return (int) Math.min(this.memoryCap + this.spillCap, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized int getAmountBuffered() {
+        return (int) Math.min(this.memoryBuffered + this.spillBuffered, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the amount of bytes currently held in memory.
+     */
+    public synchronized int getMemoryBuffered() {
+        return this.memoryBuffered;
+    }
+
+    /**
+     * @return the amount of bytes currently spilled to disk.
+     */
+    public synchronized long getSpilledBytes() {
+        return this.spillBuffered;
+    }
+
+    /* ---------------- */
+    /* Storage          */
+    /* ---------------- */
+
+    /**
+     * @return how much can be inserted right now without applying the strategy.
+     */
+    private int free() {
+        long free;
+        if (this.spillBuffered > 0) {
+            free = this.spillCap - this.spillBuffered; // Keep the order, everything goes to disk.
+        } else {
+            free = (this.memoryCap - this.memoryBuffered) + this.spillCap;
+        }
+        return (int) Math.min(free, Integer.MAX_VALUE);
+    }
+
+    private long buffered() {
+        return this.memoryBuffered + this.spillBuffered;
+    }
+
+    private int available() {
+        return (int) Math.min(this.buffered(), Integer.MAX_VALUE);
+    }
+
+    private void put(byte[] buf, int bufOffset, int amount) throws IOException {
+        if (amount == 0) return;
+
+        if (this.spillBuffered == 0) {
+            int toMemory = Math.min(amount, this.memoryCap - this.memoryBuffered);
+            this.putMemory(buf, bufOffset, toMemory);
+            bufOffset += toMemory;
+            amount -= toMemory;
+        }
+
+        if (amount > 0) {
+            this.putSpill(buf, bufOffset, amount);
+        }
+    }
+
+    private void putMemory(byte[] buf, int bufOffset, int amount) {
+        this.metricIn(amount);
+
+        while (amount > 0) {
+            if (this.segments.isEmpty() || this.tailOffset == this.segmentSize) {
+                this.segments.addLast(this.pool.take(this.segmentSize)); // Grow.
+                this.tailOffset = 0;
+            }
+
+            int chunk = Math.min(amount, this.segmentSize - this.tailOffset);
+            System.arraycopy(buf, bufOffset, this.segments.peekLast(), this.tailOffset, chunk);
+            this.tailOffset += chunk;
+            this.memoryBuffered += chunk;
+            bufOffset += chunk;
+            amount -= chunk;
+        }
+    }
+
+    private void putSpill(byte[] buf, int bufOffset, int amount) throws IOException {
+        if (this.spill == null) {
+            Path file = this.spillDirectory == null ? Files.createTempFile("sinkbuffer-", ".spill") : Files.createTempFile(this.spillDirectory, "sinkbuffer-", ".spill");
+            this.spill = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        this.metricIn(amount);
+
+        long writePos = (this.spillReadPos + this.spillBuffered) % this.spillCap;
+        int firstChunk = (int) Math.min(amount, this.spillCap - writePos);
+        writeFully(this.spill, ByteBuffer.wrap(buf, bufOffset, firstChunk), writePos);
+        if (firstChunk < amount) {
+            writeFully(this.spill, ByteBuffer.wrap(buf, bufOffset + firstChunk, amount - firstChunk), 0); // Wrap around.
+        }
+
+        this.spillBuffered += amount;
+    }
+
+    private void take(byte[] buf, int bufOffset, int amount) throws IOException {
+        if (amount == 0) return;
+
+        int fromMemory = Math.min(amount, this.memoryBuffered);
+        this.takeMemory(buf, bufOffset, fromMemory);
+        bufOffset += fromMemory;
+        amount -= fromMemory;
+
+        if (amount > 0) {
+            this.takeSpill(buf, bufOffset, amount);
+        }
+    }
+
+    private void takeMemory(byte[] buf, int bufOffset, int amount) {
+        this.metricOut(amount);
+
+        while (amount > 0) {
+            int end = this.segments.size() == 1 ? this.tailOffset : this.segmentSize;
+
+            int chunk = Math.min(amount, end - this.headOffset);
+            System.arraycopy(this.segments.peekFirst(), this.headOffset, buf, bufOffset, chunk);
+            this.headOffset += chunk;
+            this.memoryBuffered -= chunk;
+            bufOffset += chunk;
+            amount -= chunk;
+
+            if (this.headOffset == end) {
+                if (this.segments.size() == 1) {
+                    // Empty, rewind and keep the segment around for the next insert.
+                    this.headOffset = 0;
+                    this.tailOffset = 0;
+                } else {
+                    this.pool.give(this.segments.pollFirst()); // Shrink.
+                    this.headOffset = 0;
+                }
+            }
+        }
+    }
+
+    private void takeSpill(byte[] buf, int bufOffset, int amount) throws IOException {
+        this.metricOut(amount);
+
+        int firstChunk = (int) Math.min(amount, this.spillCap - this.spillReadPos);
+        readFully(this.spill, ByteBuffer.wrap(buf, bufOffset, firstChunk), this.spillReadPos);
+        if (firstChunk < amount) {
+            readFully(this.spill, ByteBuffer.wrap(buf, bufOffset + firstChunk, amount - firstChunk), 0); // Wrap around.
+        }
+
+        this.spillReadPos = (this.spillReadPos + amount) % this.spillCap;
+        this.spillBuffered -= amount;
+        if (this.spillBuffered == 0) {
+            this.spillReadPos = 0; // Caught up, back to memory.
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer src, long position) throws IOException {
+        while (src.hasRemaining()) {
+            position += channel.write(src, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst, position);
+            if (read == -1) throw new IOException("Spill file was truncated.");
+            position += read;
+        }
+    }
+
+    /**
+     * @return false if the deadline has passed.
+     */
+    private boolean await(boolean inserting, boolean timed, long deadline) throws InterruptedException, IOException {
+        long start = System.nanoTime();
+        this.waiters++;
+        try {
+            if (timed) {
+                long remaining = deadline - start;
+                if (remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } else {
+                this.wait();
+            }
+        } finally {
+            this.waiters--;
+            this.metricBlocked(inserting, System.nanoTime() - start);
+        }
+        this.ensureOpen();
+        return true;
+    }
+
+    private void signal() {
+        if (this.waiters > 0) {
+            this.notifyAll();
+        }
+        this.stateChanged();
+    }
+
+    /* ---------------- */
+    /* Insert           */
+    /* ---------------- */
+
+    /**
+     * @throws SinkBuffereringError if there is not enough space in memory and on
+     *                              disk AND the strategy is
+     *                              {@link InsertionStrategy#THROW_ON_OVERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed or the spill file
+     *                              could not be written.
+     */
+    @Override
+    public synchronized void insert(byte[] buf, int bufOffset, int amountToInsert) throws InterruptedException, IOException {
+        this.insert0(buf, bufOffset, amountToInsert, false, 0);
+    }
+
+    @Override
+    public synchronized int insert(byte[] buf, int bufOffset, int amountToInsert, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.insert0(buf, bufOffset, amountToInsert, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public synchronized int tryInsert(byte[] buf, int bufOffset, int amountToInsert) throws IOException {
+        this.ensureOpen();
+
+        int amount = Math.min(this.free(), amountToInsert);
+        this.put(buf, bufOffset, amount);
+        this.signal();
+        return amount;
+    }
+
+    private int insert0(byte[] buf, int bufOffset, int amountToInsert, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        try {
+            if (this.free() < amountToInsert) {
+                this.metricOverrun(this.getInsertionStrategy() == InsertionStrategy.DROP_ON_OVERRUN ? amountToInsert - this.free() : 0);
+
+                switch (this.getInsertionStrategy()) {
+                    case BLOCK_ON_OVERRUN: {
+                        final long deadline = System.nanoTime() + timeoutNanos;
+
+                        int inserted = 0;
+                        while (inserted < amountToInsert) {
+                            int free = this.free();
+                            if (free == 0) {
+                                // Wait for data to be consumed.
+                                if (!this.await(true, timed, deadline)) break;
+                                continue;
+                            }
+
+                            int chunk = Math.min(free, amountToInsert - inserted);
+                            this.put(buf, bufOffset + inserted, chunk);
+                            inserted += chunk;
+                            this.signal();
+                        }
+                        return inserted;
+                    }
+
+                    case DROP_ON_OVERRUN:
+                        amountToInsert = this.free();
+                        break; // Fall through to the below code.
+
+                    case THROW_ON_OVERRUN:
+                        throw new SinkBuffereringError();
+                }
+            }
+
+            this.put(buf, bufOffset, amountToInsert);
+            return amountToInsert;
+        } finally {
+            this.signal();
+        }
+    }
+
+    /* ---------------- */
+    /* Extract          */
+    /* ---------------- */
+
+    /**
+     * @return                      the amount of bytes placed in buf
+     * 
+     * @throws SinkBuffereringError if there is not enough data in the buffer AND
+     *                              the strategy is
+     *                              {@link ExtractionStrategy#THROW_ON_UNDERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed or the spill file
+     *                              could not be read.
+     */
+    @Override
+    public synchronized int extract(byte[] buf, int bufOffset, int amountToExtract) throws InterruptedException, IOException {
+        return this.extract0(buf, bufOffset, amountToExtract, false, 0);
+    }
+
+    @Override
+    public synchronized int extract(byte[] buf, int bufOffset, int amountToExtract, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.extract0(buf, bufOffset, amountToExtract, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public synchronized int tryExtract(byte[] buf, int bufOffset, int amountToExtract) throws IOException {
+        this.ensureOpen();
+
+        int amount = Math.min(this.available(), amountToExtract);
+        this.take(buf, bufOffset, amount);
+        this.signal();
+        return amount;
+    }
+
+    @SuppressWarnings("deprecation")
+    private int extract0(byte[] buf, int bufOffset, final int amountToExtract, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        try {
+            int available = this.available();
+            if (available < amountToExtract) {
+                boolean pads = this.getExtractionStrategy() == ExtractionStrategy.NULL_ON_UNDERRUN || this.getExtractionStrategy() == ExtractionStrategy.LOOP_ON_UNDERRUN;
+                this.metricUnderrun(pads ? amountToExtract - available : 0);
+
+                switch (this.getExtractionStrategy()) {
+                    case BLOCK_ON_UNDERRUN: {
+                        final long deadline = System.nanoTime() + timeoutNanos;
+
+                        int extracted = 0;
+                        while (extracted < amountToExtract) {
+                            int ready = this.available();
+                            if (ready == 0) {
+                                // Wait for new data to come in.
+                                if (!this.await(false, timed, deadline)) break;
+                                continue;
+                            }
+
+                            int chunk = Math.min(ready, amountToExtract - extracted);
+                            this.take(buf, bufOffset + extracted, chunk);
+                            extracted += chunk;
+                            this.signal();
+                        }
+                        return extracted;
+                    }
+
+                    case THROW_ON_UNDERRUN:
+                        throw new SinkBuffereringError();
+
+                    case NULL_ON_UNDERRUN: {
+                        this.take(buf, bufOffset, available);
+                        Arrays.fill(buf, bufOffset + available, bufOffset + amountToExtract, this.nullValue);
+                        return amountToExtract;
+                    }
+
+                    case LOOP_ON_UNDERRUN: {
+                        if (available == 0) {
+                            // Nothing to loop over.
+                            Arrays.fill(buf, bufOffset, bufOffset + amountToExtract, this.nullValue);
+                            return amountToExtract;
+                        }
+
+                        this.take(buf, bufOffset, available);
+                        for (int written = available; written < amountToExtract;) {
+                            int len = Math.min(available, amountToExtract - written);
+                            System.arraycopy(buf, bufOffset, buf, bufOffset + written, len);
+                            written += len;
+                        }
+                        return amountToExtract;
+                    }
+
+                    case SHRINK_ON_UNDERRUN:
+                        this.take(buf, bufOffset, available);
+                        return available;
+                }
+            }
+
+            this.take(buf, bufOffset, amountToExtract);
+            return amountToExtract;
+        } finally {
+            this.signal();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+            "ElasticSinkBuffer(memory=%d/%d, segments=%d, spilled=%d/%d, open=%b)",
+            this.memoryBuffered, this.memoryCap, this.segments.size(), this.spillBuffered, this.spillCap, this.open
+        );
+    }
+
+    /**
+     * Closes the buffer, releasing its memory and deleting the spill file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.open) return;
+        this.open = false;
+
+        for (byte[] segment : this.segments) {
+            this.pool.give(segment);
+        }
+        this.segments.clear();
+        this.memoryBuffered = 0;
+        this.spillBuffered = 0;
+
+        this.notifyAll();
+        this.readiness.close();
+
+        if (this.spill != null) {
+            this.spill.close();
+        }
+    }
+
+}
@@ -0,0 +1,304 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import co.casterlabs.commons.io.bytes.ByteConsumer;
+import lombok.NonNull;
+
+/**
+ * A lock-free ring of discrete messages for exactly one producer thread and
+ * exactly one consumer thread. Unlike a {@link SinkBuffer}, message boundaries
+ * are preserved: each {@link #offer(byte[], int, int)} comes out as exactly one
+ * {@link #poll(ByteConsumer)}.
+ * 
+ * <p>
+ * Messages are stored contiguously as length-prefixed records, so the consumer
+ * is handed a view straight into the ring rather than a copy, and nothing is
+ * allocated per message.
+ * 
+ * @implNote The capacity is rounded up to the next power of two and a single
+ *           message may be at most {@link #getMaxMessageLength()} bytes (a bit
+ *           under half the capacity) so that it always fits contiguously.
+ *           Calling {@link #offer(byte[], int, int)} from more than one thread at
+ *           a time (or {@link #poll(ByteConsumer)} from more than one thread at
+ *           a time) will corrupt the ring.
+ */
+public class FramedSinkBuffer implements Closeable {
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int PADDING = -1; // Marks the unused end of the ring, the record continues at 0.
+
+    private final byte[] ring;
+    private final int mask;
+
+    // Both indices only ever increase, the ring position is index & mask.
+    private final _PaddedIndex head = new _PaddedIndex(); // Written by the consumer.
+    private final _PaddedIndex tail = new _PaddedIndex(); // Written by the producer.
+
+    private long producerCachedHead = 0; // Only touched by the producer.
+    private long consumerCachedTail = 0; // Only touched by the consumer.
+
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    private volatile boolean open = true;
+
+    /**
+     * @param  bufferSize               the minimum size of the ring in bytes,
+     *                                  rounded up to a power of two.
+     * 
+     * @throws IllegalArgumentException if bufferSize is less than 16 or larger
+     *                                  than 2^30
+     */
+    public FramedSinkBuffer(int bufferSize) {
+        if (bufferSize < 16 || bufferSize > 1 << 30) {
+            throw new IllegalArgumentException("Buffer size MUST be at least 16 and at most 2^30");
+        }
+
+        int capacity = Integer.highestOneBit(bufferSize - 1) << 1;
+        this.ring = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!this.open) {
+            throw new IOException("The buffer has been closed.");
+        }
+    }
+
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    public int getBufferSize() {
+        return this.ring.length;
+    }
+
+    /**
+     * @return the largest message that can be offered.
+     */
+    public int getMaxMessageLength() {
+        return this.ring.length / 2 - HEADER_SIZE;
+    }
+
+    /**
+     * @return the amount of ring space in use, including headers and padding.
+     */
+    public int getBytesUsed() {
+        return (int) (this.tail.value - this.head.value);
+    }
+
+    public boolean isEmpty() {
+        return this.tail.value == this.head.value;
+    }
+
+    private static int recordSize(int len) {
+        return (HEADER_SIZE + len + 3) & ~3; // Keep headers 4-byte aligned.
+    }
+
+    /**
+     * Parks the current thread until it is unparked, or until the deadline.
+     * 
+     * @return false if the deadline has passed.
+     */
+    private boolean park(long deadline) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) return false;
+
+        LockSupport.parkNanos(this, remaining);
+        if (Thread.interrupted()) throw new InterruptedException();
+        return true;
+    }
+
+    /* ---------------- */
+    /* Producer         */
+    /* ---------------- */
+
+    /**
+     * Copies the message into the ring without blocking.
+     * 
+     * @return                          false if there is currently not enough
+     *                                  room.
+     * 
+     * @throws IllegalArgumentException if len is larger than
+     *                                  {@link #getMaxMessageLength()}.
+     * @throws IOException              if the buffer has been closed.
+     */
+    public boolean offer(@NonNull byte[] buf, int off, int len) throws IOException {
+        if (len < 0 || len > this.getMaxMessageLength()) {
+            throw new IllegalArgumentException("Message length must be between 0 and " + this.getMaxMessageLength());
+        }
+        this.ensureOpen();
+
+        long tail = this.tail.value;
+        int pos = (int) tail & this.mask;
+        int recordSize = recordSize(len);
+        int toEnd = this.ring.length - pos;
+
+        // If the record doesn't fit before the end we pad out the end and start over at 0.
+        int needed = recordSize <= toEnd ? recordSize : toEnd + recordSize;
+        if (this.ring.length - (int) (tail - this.producerCachedHead) < needed) {
+            this.producerCachedHead = this.head.value;
+            if (this.ring.length - (int) (tail - this.producerCachedHead) < needed) {
+                return false;
+            }
+        }
+
+        if (recordSize > toEnd) {
+            INT.set(this.ring, pos, PADDING);
+            tail += toEnd;
+            pos = 0;
+        }
+
+        INT.set(this.ring, pos, len);
+        System.arraycopy(buf, off, this.ring, pos + HEADER_SIZE, len);
+        this.tail.value = tail + recordSize; // Publish.
+
+        Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Like {@link #offer(byte[], int, int)}, but waits up to the timeout for room.
+     * 
+     * @return false if the timeout elapsed.
+     */
+    public boolean offer(@NonNull byte[] buf, int off, int len, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        if (this.offer(buf, off, len)) return true;
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.waitingProducer = Thread.currentThread();
+        try {
+            while (!this.offer(buf, off, len)) {
+                if (!this.park(deadline)) return false;
+            }
+            return true;
+        } finally {
+            this.waitingProducer = null;
+        }
+    }
+
+    /* ---------------- */
+    /* Consumer         */
+    /* ---------------- */
+
+    /**
+     * Hands the next message to the consumer and removes it, without blocking.
+     * The consumer is given a view into the ring which is only valid for the
+     * duration of the call. The message is removed even if the consumer throws.
+     * 
+     * <p>
+     * Messages that were offered before {@link #close()} can still be polled
+     * afterwards.
+     * 
+     * @return             false if there was no message.
+     * 
+     * @throws IOException if the consumer throws.
+     */
+    public boolean poll(@NonNull ByteConsumer consumer) throws IOException {
+        return this.read(consumer, true);
+    }
+
+    /**
+     * Like {@link #poll(ByteConsumer)}, but leaves the message in the ring.
+     */
+    public boolean peek(@NonNull ByteConsumer consumer) throws IOException {
+        return this.read(consumer, false);
+    }
+
+    /**
+     * Like {@link #poll(ByteConsumer)}, but waits up to the timeout for a message.
+     * 
+     * @return             false if the timeout elapsed.
+     * 
+     * @throws IOException if the consumer throws, or if the buffer has been closed
+     *                     and there are no messages left.
+     */
+    public boolean poll(@NonNull ByteConsumer consumer, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        if (this.poll(consumer)) return true;
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.waitingConsumer = Thread.currentThread();
+        try {
+            while (!this.poll(consumer)) {
+                this.ensureOpen();
+                if (!this.park(deadline)) return false;
+            }
+            return true;
+        } finally {
+            this.waitingConsumer = null;
+        }
+    }
+
+    private boolean read(ByteConsumer consumer, boolean remove) throws IOException {
+        long head = this.head.value;
+        if (this.consumerCachedTail == head) {
+            this.consumerCachedTail = this.tail.value;
+            if (this.consumerCachedTail == head) {
+                return false;
+            }
+        }
+
+        int pos = (int) head & this.mask;
+        int len = (int) INT.get(this.ring, pos);
+        if (len == PADDING) {
+            // The producer publishes the padding and the record together.
+            head += this.ring.length - pos;
+            pos = 0;
+            len = (int) INT.get(this.ring, pos);
+        }
+
+        try {
+            consumer.accept(this.ring, pos + HEADER_SIZE, len);
+        } finally {
+            if (remove) {
+                this.head.value = head + recordSize(len); // Release the space.
+
+                Thread producer = this.waitingProducer;
+                if (producer != null) {
+                    LockSupport.unpark(producer);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FramedSinkBuffer(capacity=%d, used=%d, open=%b)", this.ring.length, this.getBytesUsed(), this.open);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.open) return;
+        this.open = false;
+
+        Thread producer = this.waitingProducer;
+        if (producer != null) LockSupport.unpark(producer);
+
+        Thread consumer = this.waitingConsumer;
+        if (consumer != null) LockSupport.unpark(consumer);
+    }
+
+}
@@ -0,0 +1,46 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+/**
+ * What a {@link BroadcastSinkBuffer} does with a consumer that has fallen so far
+ * behind that the next insert would overwrite data it has not read yet.
+ * 
+ * @see {@link BroadcastSinkBuffer}
+ */
+public enum LagStrategy {
+
+    /**
+     * The consumer loses everything it has not read yet and continues from the
+     * newly inserted data. The amount of bytes lost is recorded in
+     * {@link BroadcastSinkBuffer.Cursor#getSkipped()}.
+     * 
+     * @see {@link BroadcastSinkBuffer}
+     */
+    SKIP_TO_HEAD,
+
+    /**
+     * The consumer is disconnected, any further extracts will throw.
+     * 
+     * @see {@link BroadcastSinkBuffer}
+     */
+    DISCONNECT,
+
+    /**
+     * insert() will block until the slowest consumer has read enough to fit the
+     * remaining data.
+     * 
+     * @see {@link BroadcastSinkBuffer}
+     */
+    BLOCK_PRODUCER,
+
+}
@@ -13,6 +13,12 @@ package co.casterlabs.commons.io.sink;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.commons.async.promise.Promise;
 
 import lombok.Getter;
 import lombok.NonNull;
@@ -38,6 +44,12 @@ import lombok.NonNull;
  * <li>{@link ExtractionStrategy#LOOP_ON_UNDERRUN}</li>
  * <li>{@link ExtractionStrategy#SHRINK_ON_UNDERRUN}</li>
  * </ul>
+ * 
+ * The blocking strategies can be bounded with the timed insert/extract
+ * overloads, {@link #tryInsert(byte[], int, int)} and
+ * {@link #tryExtract(byte[], int, int)} never block, and
+ * {@link #whenReadable(int)}/{@link #whenWritable(int)} let you await the
+ * buffer's state without parking a thread.
  */
 public class SinkBuffer implements Closeable {
 
@@ -50,14 +62,21 @@ public class SinkBuffer implements Closeable {
 
     private @Getter boolean isOpen = true;
 
-    private final InsertionStrategy insertionStrategy;
-    private final ExtractionStrategy extractionStrategy;
+    private final @Getter InsertionStrategy insertionStrategy;
+    private final @Getter ExtractionStrategy extractionStrategy;
     private final byte[] buffer;
 
-    private @Getter int amountBuffered = 0;
+    private int amountBuffered = 0;
     private int bufferReadPos = 0;
     private int bufferWritePos = this.bufferReadPos; // MUST START AT THE SAME SPOT!
 
+    final _Readiness readiness = new _Readiness();
+
+    private volatile @Nullable Watermarks watermarks;
+    private final Object watermarkLock = new Object();
+    private volatile boolean aboveHighWatermark = false;
+    private volatile @Nullable SinkBufferMetrics metrics;
+
     /**
      * @param    bufferSize               the size of the internal buffer. It is up
      *                                    to you to properly estimate this value
@@ -84,6 +103,27 @@ public class SinkBuffer implements Closeable {
         this.extractionStrategy = extractionStrategy;
     }
 
+    /**
+     * For subclasses that manage their own storage. They must override every
+     * method that touches the ring, the base implementations throw
+     * {@link UnsupportedOperationException} otherwise.
+     */
+    SinkBuffer(@NonNull InsertionStrategy insertionStrategy, @NonNull ExtractionStrategy extractionStrategy) {
+        this.buffer = null;
+        this.insertionStrategy = insertionStrategy;
+        this.extractionStrategy = extractionStrategy;
+    }
+
+    /**
+     * Subclasses that manage their own storage have no heap ring, catch them
+     * calling into ours instead of NPE'ing somewhere deep inside.
+     */
+    private void _ensureHeap() {
+        if (this.buffer == null) {
+            throw new UnsupportedOperationException(this.getClass().getName() + " manages its own storage and MUST override this method.");
+        }
+    }
+
     private void _ensureOpen() throws IOException {
         if (!this.isOpen) {
             throw new IOException("The buffer has been closed.");
@@ -91,9 +131,15 @@ public class SinkBuffer implements Closeable {
     }
 
     public int getBufferSize() {
+        this._ensureHeap();
         return this.buffer.length;
     }
 
+    public int getAmountBuffered() {
+        this._ensureHeap();
+        return this.amountBuffered;
+    }
+
     /**
      * @throws SinkBuffereringError if there is not enough space in the buffer AND
      *                              the strategy is
@@ -102,22 +148,73 @@ public class SinkBuffer implements Closeable {
      * @throws IOException          if the buffer has been closed.
      */
     public synchronized void insert(byte[] buf, int bufOffset, int amountToInsert) throws InterruptedException, IOException {
+        this.insert0(buf, bufOffset, amountToInsert, false, 0);
+    }
+
+    /**
+     * Like {@link #insert(byte[], int, int)}, but
+     * {@link InsertionStrategy#BLOCK_ON_OVERRUN} gives up once the timeout
+     * elapses.
+     * 
+     * @return                      the amount of bytes inserted, which is less
+     *                              than amountToInsert if the timeout elapsed or
+     *                              data was dropped.
+     * 
+     * @throws SinkBuffereringError if there is not enough space in the buffer AND
+     *                              the strategy is
+     *                              {@link InsertionStrategy#THROW_ON_OVERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed.
+     */
+    public synchronized int insert(byte[] buf, int bufOffset, int amountToInsert, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.insert0(buf, bufOffset, amountToInsert, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Inserts as much as currently fits without ever blocking, regardless of the
+     * strategy.
+     * 
+     * @return             the amount of bytes inserted.
+     * 
+     * @throws IOException if the buffer has been closed.
+     */
+    public synchronized int tryInsert(byte[] buf, int bufOffset, int amountToInsert) throws IOException {
+        this._ensureHeap();
+        this._ensureOpen();
+
+        int amount = Math.min(this.buffer.length - this.amountBuffered, amountToInsert);
+        this.put(buf, bufOffset, amount);
+        this._signal();
+        return amount;
+    }
+
+    private int insert0(byte[] buf, int bufOffset, int amountToInsert, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this._ensureHeap();
         this._ensureOpen();
 
         try {
             if (this.buffer.length - this.amountBuffered < amountToInsert) {
+                this.metricOverrun(this.insertionStrategy == InsertionStrategy.DROP_ON_OVERRUN ? amountToInsert - (this.buffer.length - this.amountBuffered) : 0);
+
                 switch (this.insertionStrategy) {
                     case BLOCK_ON_OVERRUN: {
-                        do {
-                            int maxInsertable = Math.min(this.buffer.length - this.amountBuffered, amountToInsert);
-                            this.insert(buf, bufOffset, maxInsertable);
-                            bufOffset += maxInsertable;
-                            amountToInsert -= maxInsertable;
-
-                            this.wait(); // Wait for data to be consumed.
-                            this._ensureOpen();
-                        } while (0 < amountToInsert); // Check and see if we're done.
-                        return;
+                        final long deadline = System.nanoTime() + timeoutNanos;
+
+                        int inserted = 0;
+                        while (inserted < amountToInsert) {
+                            int space = this.buffer.length - this.amountBuffered;
+                            if (space == 0) {
+                                // Wait for data to be consumed.
+                                if (!this._await(true, timed, deadline)) break;
+                                continue;
+                            }
+
+                            int chunk = Math.min(space, amountToInsert - inserted);
+                            this.put(buf, bufOffset + inserted, chunk);
+                            inserted += chunk;
+                            this._signal();
+                        }
+                        return inserted;
                     }
 
                     case DROP_ON_OVERRUN:
@@ -129,25 +226,32 @@ public class SinkBuffer implements Closeable {
                 }
             }
 
-            int remainingSpace = this.buffer.length - this.bufferWritePos;
-            if (remainingSpace < amountToInsert) {
-                // We have to first split up our write since the buffer is not circular.
-                System.arraycopy(buf, bufOffset, this.buffer, this.bufferWritePos, remainingSpace);
-                this.bufferWritePos = 0;
-                this.amountBuffered += remainingSpace;
-                bufOffset += remainingSpace;
-                amountToInsert -= remainingSpace; // We set all of these for the code below.
-            }
+            this.put(buf, bufOffset, amountToInsert);
+            return amountToInsert;
+        } finally {
+            this._signal();
+        }
+    }
 
-            System.arraycopy(buf, bufOffset, this.buffer, this.bufferWritePos, amountToInsert);
-            this.bufferWritePos += amountToInsert;
-            this.amountBuffered += amountToInsert;
+    private void put(byte[] buf, int bufOffset, int amountToInsert) {
+        this.metricIn(amountToInsert);
+
+        int remainingSpace = this.buffer.length - this.bufferWritePos;
+        if (remainingSpace < amountToInsert) {
+            // We have to first split up our write since the buffer is not circular.
+            System.arraycopy(buf, bufOffset, this.buffer, this.bufferWritePos, remainingSpace);
+            this.bufferWritePos = 0;
+            this.amountBuffered += remainingSpace;
+            bufOffset += remainingSpace;
+            amountToInsert -= remainingSpace; // We set all of these for the code below.
+        }
 
-            if (this.bufferWritePos == this.buffer.length) {
-                this.bufferWritePos = 0; // Wrap around.
-            }
-        } finally {
-            this.notifyAll();
+        System.arraycopy(buf, bufOffset, this.buffer, this.bufferWritePos, amountToInsert);
+        this.bufferWritePos += amountToInsert;
+        this.amountBuffered += amountToInsert;
+
+        if (this.bufferWritePos == this.buffer.length) {
+            this.bufferWritePos = 0; // Wrap around.
         }
     }
 
@@ -162,24 +266,74 @@ public class SinkBuffer implements Closeable {
      * @throws IOException          if the buffer has been closed.
      */
     public synchronized int extract(byte[] buf, int bufOffset, final int amountToExtract) throws InterruptedException, IOException {
+        return this.extract0(buf, bufOffset, amountToExtract, false, 0);
+    }
+
+    /**
+     * Like {@link #extract(byte[], int, int)}, but
+     * {@link ExtractionStrategy#BLOCK_ON_UNDERRUN} gives up once the timeout
+     * elapses.
+     * 
+     * @return                      the amount of bytes placed in buf, which is
+     *                              less than amountToExtract if the timeout
+     *                              elapsed.
+     * 
+     * @throws SinkBuffereringError if there is not enough data in the buffer AND
+     *                              the strategy is
+     *                              {@link ExtractionStrategy#THROW_ON_UNDERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed.
+     */
+    public synchronized int extract(byte[] buf, int bufOffset, int amountToExtract, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.extract0(buf, bufOffset, amountToExtract, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Extracts whatever is currently buffered (up to amountToExtract) without ever
+     * blocking, regardless of the strategy.
+     * 
+     * @return             the amount of bytes placed in buf
+     * 
+     * @throws IOException if the buffer has been closed.
+     */
+    public synchronized int tryExtract(byte[] buf, int bufOffset, int amountToExtract) throws IOException {
+        this._ensureHeap();
+        this._ensureOpen();
+
+        int amount = Math.min(this.amountBuffered, amountToExtract);
+        this.take(buf, bufOffset, amount);
+        this._signal();
+        return amount;
+    }
+
+    @SuppressWarnings("deprecation")
+    private int extract0(byte[] buf, int bufOffset, final int amountToExtract, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this._ensureHeap();
         this._ensureOpen();
 
         try {
-            if (this.amountBuffered < amountToExtract) { // The while loop is for
+            if (this.amountBuffered < amountToExtract) {
+                boolean pads = this.extractionStrategy == ExtractionStrategy.NULL_ON_UNDERRUN || this.extractionStrategy == ExtractionStrategy.LOOP_ON_UNDERRUN;
+                this.metricUnderrun(pads ? amountToExtract - this.amountBuffered : 0);
+
                 switch (this.extractionStrategy) {
                     case BLOCK_ON_UNDERRUN: {
-                        int remaining = amountToExtract;
-                        do {
-                            int chunk = Math.min(this.amountBuffered, remaining);
-                            this.extract(buf, bufOffset, chunk);
-                            bufOffset += chunk;
-                            remaining -= chunk;
-
-                            this.wait(); // Wait for new data to come in.
-                            this._ensureOpen();
-                        } while (this.amountBuffered < remaining);// Check and see if there's enough room yet.
-
-                        return amountToExtract; // Fall through to the below code.
+                        final long deadline = System.nanoTime() + timeoutNanos;
+
+                        int extracted = 0;
+                        while (extracted < amountToExtract) {
+                            if (this.amountBuffered == 0) {
+                                // Wait for new data to come in.
+                                if (!this._await(false, timed, deadline)) break;
+                                continue;
+                            }
+
+                            int chunk = Math.min(this.amountBuffered, amountToExtract - extracted);
+                            this.take(buf, bufOffset + extracted, chunk);
+                            extracted += chunk;
+                            this._signal();
+                        }
+                        return extracted;
                     }
 
                     case THROW_ON_UNDERRUN:
@@ -189,7 +343,7 @@ public class SinkBuffer implements Closeable {
                         final int endPos = bufOffset + amountToExtract;
                         int amountAvailable = this.amountBuffered;
 
-                        this.extract(buf, bufOffset, amountAvailable);
+                        this.take(buf, bufOffset, amountAvailable);
                         bufOffset += amountAvailable;
 
                         // Go over the remaining bytes and set them to 0.
@@ -202,7 +356,13 @@ public class SinkBuffer implements Closeable {
 
                     case LOOP_ON_UNDERRUN: {
                         byte[] contents = new byte[this.amountBuffered];
-                        this.extract(contents, 0, contents.length); // Get the actual content of the buffer.
+                        this.take(contents, 0, contents.length); // Get the actual content of the buffer.
+
+                        if (contents.length == 0) {
+                            // Nothing to loop over.
+                            Arrays.fill(buf, bufOffset, bufOffset + amountToExtract, this.nullValue);
+                            return amountToExtract;
+                        }
 
                         int remaining = amountToExtract;
                         while (remaining > 0) {
@@ -216,39 +376,274 @@ public class SinkBuffer implements Closeable {
                         return amountToExtract; // We're done!
                     }
 
-                    case SHRINK_ON_UNDERRUN:
-                        return this.extract(buf, bufOffset, this.amountBuffered);
+                    case SHRINK_ON_UNDERRUN: {
+                        int amountAvailable = this.amountBuffered;
+                        this.take(buf, bufOffset, amountAvailable);
+                        return amountAvailable;
+                    }
                 }
             }
 
-            int remaining = amountToExtract;
+            this.take(buf, bufOffset, amountToExtract);
+            return amountToExtract;
+        } finally {
+            this._signal();
+        }
+    }
+
+    private void take(byte[] buf, int bufOffset, int amountToExtract) {
+        this.metricOut(amountToExtract);
+
+        int remainingValidInLine = this.buffer.length - this.bufferReadPos;
+        if (remainingValidInLine < amountToExtract) {
+            // We have to first split up our read since the buffer is not circular.
+            System.arraycopy(this.buffer, this.bufferReadPos, buf, bufOffset, remainingValidInLine);
+            this.bufferReadPos = 0;
+            this.amountBuffered -= remainingValidInLine;
+            bufOffset += remainingValidInLine;
+            amountToExtract -= remainingValidInLine; // We set all of these for the code below.
+        }
+
+        System.arraycopy(this.buffer, this.bufferReadPos, buf, bufOffset, amountToExtract);
+        this.bufferReadPos += amountToExtract;
+        this.amountBuffered -= amountToExtract;
 
-            int remainingValidInLine = this.buffer.length - this.bufferReadPos;
-            if (remainingValidInLine < remaining) {
-                // We have to first split up our write since the buffer is not circular.
-                System.arraycopy(this.buffer, this.bufferReadPos, buf, bufOffset, remainingValidInLine);
-                this.bufferReadPos = 0;
-                this.amountBuffered -= remainingValidInLine;
-                bufOffset += remainingValidInLine;
-                remaining -= remainingValidInLine; // We set all of these for the code below.
+        if (this.bufferReadPos == this.buffer.length) {
+            this.bufferReadPos = 0; // Wrap around.
+        }
+    }
+
+    private void _signal() {
+        this.notifyAll();
+        this.stateChanged();
+    }
+
+    /**
+     * Waits for a notify, or until the deadline when timed.
+     * 
+     * @return false if the deadline has passed.
+     */
+    private boolean _await(boolean inserting, boolean timed, long deadline) throws InterruptedException, IOException {
+        long start = System.nanoTime();
+        try {
+            if (timed) {
+                long remaining = deadline - start;
+                if (remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } else {
+                this.wait();
             }
+        } finally {
+            this.metricBlocked(inserting, System.nanoTime() - start);
+        }
+        this._ensureOpen();
+        return true;
+    }
+
+    /* ---------------- */
+    /* Readiness        */
+    /* ---------------- */
+
+    /**
+     * @return a promise that resolves once at least amount bytes are buffered, or
+     *         rejects if the buffer is closed first.
+     * 
+     * @throws   IllegalArgumentException if amount is larger than the buffer.
+     * 
+     * @implNote                          The waiter is registered and checked
+     *                                    under the same monitor that insert()
+     *                                    and extract() hold, so a change made
+     *                                    just before registering is never
+     *                                    missed.
+     */
+    public synchronized Promise<Void> whenReadable(int amount) {
+        checkReadinessAmount(amount, this.getBufferSize());
+        Promise<Void> promise = this.readiness.add(true, amount);
+        this.stateChanged();
+        return promise;
+    }
+
+    /**
+     * @return a promise that resolves once at least amount bytes of space are
+     *         free, or rejects if the buffer is closed first.
+     * 
+     * @throws IllegalArgumentException if amount is larger than the buffer.
+     */
+    public synchronized Promise<Void> whenWritable(int amount) {
+        checkReadinessAmount(amount, this.getBufferSize());
+        Promise<Void> promise = this.readiness.add(false, amount);
+        this.stateChanged();
+        return promise;
+    }
+
+    static void checkReadinessAmount(int amount, int bufferSize) {
+        if (amount < 0 || amount > bufferSize) {
+            throw new IllegalArgumentException("amount must be between 0 and the buffer size (" + bufferSize + ")");
+        }
+    }
+
+    /* ---------------- */
+    /* Flow Control     */
+    /* ---------------- */
+
+    /**
+     * Calls onHigh once the amount buffered reaches highWatermark, and then onLow
+     * once it drains back down to lowWatermark. Use this to pause and resume your
+     * producer (e.g stop reading from a socket) before the buffer is actually
+     * full.
+     * 
+     * @throws   IllegalArgumentException if the watermarks are not
+     *                                    {@code 0 <= low < high <= bufferSize}
+     * 
+     * @implNote                          The callbacks run on whichever thread
+     *                                    crossed the watermark, possibly while
+     *                                    the buffer is locked. They must be quick
+     *                                    and must not touch the buffer.
+     */
+    public synchronized void setWatermarks(int lowWatermark, int highWatermark, @NonNull Runnable onHigh, @NonNull Runnable onLow) {
+        if (lowWatermark < 0 || lowWatermark >= highWatermark || highWatermark > this.getBufferSize()) {
+            throw new IllegalArgumentException("Watermarks must satisfy 0 <= low < high <= bufferSize");
+        }
+
+        synchronized (this.watermarkLock) {
+            this.aboveHighWatermark = false;
+            this.watermarks = new Watermarks(lowWatermark, highWatermark, onHigh, onLow);
+        }
+        this.stateChanged();
+    }
+
+    public void clearWatermarks() {
+        synchronized (this.watermarkLock) {
+            this.watermarks = null;
+            this.aboveHighWatermark = false;
+        }
+    }
 
-            System.arraycopy(this.buffer, this.bufferReadPos, buf, bufOffset, remaining);
-            this.bufferReadPos += remaining;
-            this.amountBuffered -= remaining;
+    /**
+     * @return true if the high watermark has been reached and the low watermark
+     *         has not yet been reached since, i.e the producer should be paused.
+     */
+    public boolean isAboveHighWatermark() {
+        return this.aboveHighWatermark;
+    }
+
+    /* ---------------- */
+    /* Metrics          */
+    /* ---------------- */
+
+    /**
+     * Starts collecting metrics, they are off by default to keep the hot path
+     * free of bookkeeping.
+     * 
+     * @return the metrics, the same instance on every call.
+     */
+    public synchronized SinkBufferMetrics enableMetrics() {
+        if (this.metrics == null) {
+            this.metrics = new SinkBufferMetrics();
+        }
+        return this.metrics;
+    }
+
+    /**
+     * @return the metrics, or null if {@link #enableMetrics()} was never called.
+     */
+    public @Nullable SinkBufferMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    final void metricIn(int amount) {
+        SinkBufferMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordIn(amount);
+    }
+
+    final void metricOut(int amount) {
+        SinkBufferMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordOut(amount);
+    }
+
+    final void metricOverrun(int dropped) {
+        SinkBufferMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordOverrun(dropped);
+    }
+
+    final void metricUnderrun(int padded) {
+        SinkBufferMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordUnderrun(padded);
+    }
+
+    final void metricBlocked(boolean inserting, long nanos) {
+        SinkBufferMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordBlocked(inserting, nanos);
+    }
+
+    /**
+     * Settles readiness promises, fires watermark callbacks and samples the fill
+     * level. Subclasses must call this after every change.
+     */
+    void stateChanged() {
+        Watermarks watermarks = this.watermarks;
+        SinkBufferMetrics metrics = this.metrics;
+        if (!this.readiness.isPending() && watermarks == null && metrics == null) return;
+
+        if (!this.isOpen()) {
+            this.readiness.close();
+            return;
+        }
+
+        int buffered = this.getAmountBuffered();
+        int bufferSize = this.getBufferSize();
+
+        this.readiness.update(buffered, bufferSize - buffered);
+
+        if (metrics != null) {
+            metrics.recordFill(buffered, bufferSize);
+        }
 
-            if (this.bufferWritePos == this.buffer.length) {
-                this.bufferWritePos = 0; // Wrap around.
+        if (watermarks != null) {
+            this.checkWatermarks();
+        }
+    }
+
+    /**
+     * Lock-free subclasses call {@link #stateChanged()} from the producer and the
+     * consumer at the same time, so the evaluation is serialized and re-reads the
+     * amount buffered under the lock. Otherwise a stale reading could flip the
+     * state last and e.g leave onHigh as the final callback for an empty buffer.
+     */
+    private void checkWatermarks() {
+        synchronized (this.watermarkLock) {
+            Watermarks watermarks = this.watermarks;
+            if (watermarks == null) return;
+
+            int buffered = this.getAmountBuffered();
+            if (!this.aboveHighWatermark && buffered >= watermarks.high) {
+                this.aboveHighWatermark = true;
+                watermarks.onHigh.run();
+            } else if (this.aboveHighWatermark && buffered <= watermarks.low) {
+                this.aboveHighWatermark = false;
+                watermarks.onLow.run();
             }
+        }
+    }
 
-            return amountToExtract;
-        } finally {
-            this.notifyAll();
+    private static class Watermarks {
+        private final int low;
+        private final int high;
+        private final Runnable onHigh;
+        private final Runnable onLow;
+
+        Watermarks(int low, int high, Runnable onHigh, Runnable onLow) {
+            this.low = low;
+            this.high = high;
+            this.onHigh = onHigh;
+            this.onLow = onLow;
         }
     }
 
     @Override
     public synchronized String toString() {
+        this._ensureHeap();
+
         String[] lines = {
                 "Buffer:        |", // 0
                 "Write Pointer:  ", // 1
@@ -281,6 +676,7 @@ public class SinkBuffer implements Closeable {
         if (!this.isOpen) return;
         this.isOpen = false;
         this.notifyAll();
+        this.readiness.close();
     }
 
 }
@@ -0,0 +1,177 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for a {@link SinkBuffer}, see {@link SinkBuffer#enableMetrics()}.
+ * All values are cumulative since the metrics were enabled or last
+ * {@link #reset()}.
+ */
+public class SinkBufferMetrics {
+    /**
+     * The fill histogram has one bucket per 10% of the buffer's capacity, the
+     * last bucket also counts a completely full buffer.
+     */
+    public static final int HISTOGRAM_BUCKETS = 10;
+
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder bytesDropped = new LongAdder();
+    private final LongAdder bytesPadded = new LongAdder();
+
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder underruns = new LongAdder();
+
+    private final LongAdder nanosBlockedInserting = new LongAdder();
+    private final LongAdder nanosBlockedExtracting = new LongAdder();
+
+    private final AtomicLongArray fillHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+    SinkBufferMetrics() {}
+
+    /* ---------------- */
+    /* Recording        */
+    /* ---------------- */
+
+    void recordIn(int amount) {
+        this.bytesIn.add(amount);
+    }
+
+    void recordOut(int amount) {
+        this.bytesOut.add(amount);
+    }
+
+    void recordOverrun(int dropped) {
+        this.overruns.increment();
+        this.bytesDropped.add(dropped);
+    }
+
+    void recordUnderrun(int padded) {
+        this.underruns.increment();
+        this.bytesPadded.add(padded);
+    }
+
+    void recordBlocked(boolean inserting, long nanos) {
+        (inserting ? this.nanosBlockedInserting : this.nanosBlockedExtracting).add(nanos);
+    }
+
+    void recordFill(int buffered, int capacity) {
+        int bucket = (int) ((long) buffered * HISTOGRAM_BUCKETS / capacity);
+        this.fillHistogram.incrementAndGet(Math.max(0, Math.min(bucket, HISTOGRAM_BUCKETS - 1)));
+    }
+
+    /* ---------------- */
+    /* Reading          */
+    /* ---------------- */
+
+    /**
+     * @return the total amount of bytes inserted into the buffer.
+     */
+    public long getBytesIn() {
+        return this.bytesIn.sum();
+    }
+
+    /**
+     * @return the total amount of bytes extracted from the buffer, not counting
+     *         padding.
+     */
+    public long getBytesOut() {
+        return this.bytesOut.sum();
+    }
+
+    /**
+     * @return the amount of bytes discarded by
+     *         {@link InsertionStrategy#DROP_ON_OVERRUN}.
+     */
+    public long getBytesDropped() {
+        return this.bytesDropped.sum();
+    }
+
+    /**
+     * @return the amount of bytes made up by
+     *         {@link ExtractionStrategy#NULL_ON_UNDERRUN} and
+     *         {@link ExtractionStrategy#LOOP_ON_UNDERRUN}.
+     */
+    public long getBytesPadded() {
+        return this.bytesPadded.sum();
+    }
+
+    /**
+     * @return the amount of inserts that did not fit in the buffer, whatever the
+     *         strategy did about it.
+     */
+    public long getOverruns() {
+        return this.overruns.sum();
+    }
+
+    /**
+     * @return the amount of extracts that found less data than they asked for,
+     *         whatever the strategy did about it.
+     */
+    public long getUnderruns() {
+        return this.underruns.sum();
+    }
+
+    /**
+     * @return the total time producers spent waiting for space.
+     */
+    public long getNanosBlockedInserting() {
+        return this.nanosBlockedInserting.sum();
+    }
+
+    /**
+     * @return the total time consumers spent waiting for data.
+     */
+    public long getNanosBlockedExtracting() {
+        return this.nanosBlockedExtracting.sum();
+    }
+
+    /**
+     * @return how often the buffer was seen at each fill level, sampled after
+     *         every insert and extract. Index 0 is 0-10% full, index 9 is 90-100%
+     *         full.
+     */
+    public long[] getFillHistogram() {
+        long[] histogram = new long[HISTOGRAM_BUCKETS];
+        for (int idx = 0; idx < HISTOGRAM_BUCKETS; idx++) {
+            histogram[idx] = this.fillHistogram.get(idx);
+        }
+        return histogram;
+    }
+
+    public void reset() {
+        this.bytesIn.reset();
+        this.bytesOut.reset();
+        this.bytesDropped.reset();
+        this.bytesPadded.reset();
+        this.overruns.reset();
+        this.underruns.reset();
+        this.nanosBlockedInserting.reset();
+        this.nanosBlockedExtracting.reset();
+        for (int idx = 0; idx < HISTOGRAM_BUCKETS; idx++) {
+            this.fillHistogram.set(idx, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "SinkBufferMetrics(in=%d, out=%d, dropped=%d, padded=%d, overruns=%d, underruns=%d, blockedInsertingNs=%d, blockedExtractingNs=%d)",
+            this.getBytesIn(), this.getBytesOut(), this.getBytesDropped(), this.getBytesPadded(),
+            this.getOverruns(), this.getUnderruns(), this.getNanosBlockedInserting(), this.getNanosBlockedExtracting()
+        );
+    }
+
+}
@@ -0,0 +1,207 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.commons.async.promise.Promise;
+import co.casterlabs.commons.async.promise.PromiseResolver;
+import co.casterlabs.commons.io.bytes.BufferPool;
+
+/**
+ * A handle to a transfer started by one of the {@link SinkUtil} drain methods.
+ * 
+ * <p>
+ * The transfer buffer is taken from a {@link BufferPool} and adapts to the
+ * traffic: it doubles (up to {@link #MAX_CHUNK_SIZE}) whenever a chunk fills it
+ * and halves (down to {@link #MIN_CHUNK_SIZE}) whenever a chunk uses less than
+ * a quarter of it.
+ */
+public final class SinkPump {
+    public static final int MIN_CHUNK_SIZE = 2048;
+    public static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+    private final String name;
+    private final SinkBuffer sink;
+    private final BufferPool pool;
+    private final @Nullable Closeable stream;
+
+    private final PromiseResolver<Long> resolver = Promise.withResolvers();
+
+    // Only ever written by the pump's thread.
+    private volatile long bytesTransferred = 0;
+    private volatile long chunksTransferred = 0;
+    private volatile int chunkSize = MIN_CHUNK_SIZE;
+
+    private volatile boolean stopped = false;
+    private Thread thread; // Guarded by this.
+
+    private byte[] buffer;
+
+    SinkPump(String name, SinkBuffer sink, BufferPool pool, @Nullable Closeable stream) {
+        this.name = name;
+        this.sink = sink;
+        this.pool = pool;
+        this.stream = stream;
+    }
+
+    /**
+     * Stops the transfer. The pump's thread is interrupted and the stream (if
+     * any) is closed to unblock it. The sink is left open.
+     */
+    public void stop() {
+        this.stopped = true;
+
+        synchronized (this) {
+            if (this.thread != null) {
+                this.thread.interrupt();
+            }
+        }
+
+        this.closeStream();
+    }
+
+    public boolean isStopped() {
+        return this.stopped;
+    }
+
+    public boolean isRunning() {
+        return !this.resolver.promise.isSettled();
+    }
+
+    /**
+     * @return the amount of bytes moved so far.
+     */
+    public long getBytesTransferred() {
+        return this.bytesTransferred;
+    }
+
+    /**
+     * @return the amount of chunks moved so far.
+     */
+    public long getChunksTransferred() {
+        return this.chunksTransferred;
+    }
+
+    /**
+     * @return the current size of the transfer buffer.
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * @return a promise that resolves with the total amount of bytes transferred
+     *         once the source runs dry, the sink is closed or the pump is
+     *         stopped. It rejects if the transfer fails for any other reason.
+     */
+    public Promise<Long> completion() {
+        return this.resolver.promise;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SinkPump(name=%s, bytes=%d, chunkSize=%d, running=%b)", this.name, this.bytesTransferred, this.chunkSize, this.isRunning());
+    }
+
+    /* ---------------- */
+    /* Engine           */
+    /* ---------------- */
+
+    @FunctionalInterface
+    static interface Body {
+        void run(SinkPump pump) throws IOException, InterruptedException;
+    }
+
+    void run(Body body) {
+        Thread current = Thread.currentThread();
+        String originalName = current.getName();
+        current.setName(this.name);
+
+        synchronized (this) {
+            this.thread = current;
+        }
+
+        try {
+            if (!this.stopped) {
+                body.run(this);
+            }
+            this.resolver.resolve(this.bytesTransferred);
+        } catch (Throwable t) {
+            if (this.stopped || !this.sink.isOpen()) {
+                this.resolver.resolve(this.bytesTransferred); // We were asked to stop.
+            } else {
+                this.resolver.reject(t);
+            }
+        } finally {
+            synchronized (this) {
+                this.thread = null;
+            }
+            Thread.interrupted(); // Don't leak a stop() into the executor's next task.
+
+            if (this.buffer != null) {
+                this.pool.give(this.buffer);
+                this.buffer = null;
+            }
+            this.closeStream();
+            current.setName(originalName);
+        }
+    }
+
+    private void closeStream() {
+        if (this.stream == null) return;
+        try {
+            this.stream.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * @return the transfer buffer, at least {@link #getChunkSize()} bytes long.
+     */
+    byte[] buffer() {
+        if (this.buffer == null) {
+            this.buffer = this.pool.take(this.chunkSize);
+        }
+        return this.buffer;
+    }
+
+    /**
+     * Records a transferred chunk and adapts the chunk size to it.
+     * 
+     * @param adapt whether or not the chunk came through the transfer buffer.
+     */
+    void transferred(int amount, boolean adapt) {
+        this.bytesTransferred += amount;
+        this.chunksTransferred++;
+
+        if (!adapt) return;
+
+        int chunkSize = this.chunkSize;
+        if (amount >= chunkSize && chunkSize < MAX_CHUNK_SIZE) {
+            this.resize(chunkSize * 2);
+        } else if (amount < chunkSize / 4 && chunkSize > MIN_CHUNK_SIZE) {
+            this.resize(chunkSize / 2);
+        }
+    }
+
+    private void resize(int newChunkSize) {
+        this.chunkSize = newChunkSize;
+        if (this.buffer != null) {
+            this.pool.give(this.buffer);
+            this.buffer = null; // Lazily taken again.
+        }
+    }
+
+}
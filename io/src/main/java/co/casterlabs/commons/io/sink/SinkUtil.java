@@ -11,91 +11,191 @@ See the License for the specific language governing permissions and limitations
 */
 package co.casterlabs.commons.io.sink;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.commons.io.bytes.BufferPool;
+import co.casterlabs.commons.io.bytes.ByteConsumer;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 
+/**
+ * Pumps data into and out of {@link SinkBuffer}s. Every drain method returns
+ * immediately with a {@link SinkPump} handle, the transfer itself runs on the
+ * {@link #setExecutor(Executor) executor}.
+ */
 public class SinkUtil {
-    private static int num = 1;
-
-    public static void drainSupplierToSink(@NonNull Supplier<byte[]> producer, @NonNull SinkBuffer sb) {
-        Thread thread = new Thread(() -> {
-            try {
-                byte[] buf;
-                while ((buf = producer.get()) != null && sb.isOpen()) {
-                    sb.insert(buf, 0, buf.length);
+    private static final AtomicInteger num = new AtomicInteger(1);
+
+    /**
+     * The executor that pumps run on. Defaults to a virtual thread per pump if the
+     * JVM supports them (Java 21+), otherwise to a pool of non-daemon threads.
+     */
+    private static @Getter @Setter @NonNull Executor executor = createDefaultExecutor();
+
+    private static Executor createDefaultExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE,
+                5, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                (r) -> {
+                    Thread thread = new Thread(r);
+                    thread.setDaemon(false);
+                    thread.setName("SinkUtil - Pump Thread Pool Executor");
+                    return thread;
                 }
-            } catch (IOException | InterruptedException ignored) {}
+            );
+        }
+    }
+
+    private static SinkPump start(String name, SinkBuffer sb, BufferPool pool, @Nullable Closeable stream, SinkPump.Body body) {
+        SinkPump pump = new SinkPump("SinkUtil | " + name + " | #" + num.getAndIncrement(), sb, pool, stream);
+        executor.execute(() -> pump.run(body));
+        return pump;
+    }
+
+    /* ---------------- */
+    /* Into the sink    */
+    /* ---------------- */
+
+    public static SinkPump drainSupplierToSink(@NonNull Supplier<byte[]> producer, @NonNull SinkBuffer sb) {
+        return start("Supplier -> Sink", sb, BufferPool.DEFAULT, null, (pump) -> {
+            byte[] buf;
+            while (!pump.isStopped() && (buf = producer.get()) != null && sb.isOpen()) {
+                sb.insert(buf, 0, buf.length);
+                pump.transferred(buf.length, false);
+            }
         });
-        thread.setDaemon(false);
-        thread.setName("SinkUtil | Supplier -> Sink | #" + num++);
-        thread.start();
     }
 
-    public static void drainInputStreamToSink(@NonNull InputStream in, @NonNull SinkBuffer sb) {
-        Thread thread = new Thread(() -> {
-            try {
-                byte[] buf = new byte[2048];
-                int read;
-                while ((read = in.read(buf)) != -1 && sb.isOpen()) {
-                    sb.insert(buf, 0, read);
-                }
-            } catch (IOException | InterruptedException ignored) {
-                //
-            } finally {
-                try {
-                    in.close();
-                } catch (IOException ignored) {}
+    public static SinkPump drainInputStreamToSink(@NonNull InputStream in, @NonNull SinkBuffer sb) {
+        return drainInputStreamToSink(in, sb, BufferPool.DEFAULT);
+    }
+
+    /**
+     * @param pool the pool to take the transfer buffer from.
+     */
+    public static SinkPump drainInputStreamToSink(@NonNull InputStream in, @NonNull SinkBuffer sb, @NonNull BufferPool pool) {
+        return start("Stream -> Sink", sb, pool, in, (pump) -> {
+            while (!pump.isStopped() && sb.isOpen()) {
+                byte[] buf = pump.buffer();
+                int read = in.read(buf, 0, pump.getChunkSize());
+                if (read == -1) break;
+
+                sb.insert(buf, 0, read);
+                pump.transferred(read, true);
             }
         });
-        thread.setDaemon(false);
-        thread.setName("SinkUtil | Stream -> Sink | #" + num++);
-        thread.start();
     }
 
-    public static void drainSinkToOutputStream(@NonNull OutputStream out, @NonNull SinkBuffer sb) {
-        Thread thread = new Thread(() -> {
-            try {
-                byte[] buf = new byte[2048];
-                int read;
-                while (sb.isOpen()) {
-                    read = sb.extract(buf, 0, buf.length);
-                    out.write(buf, 0, read);
-                }
-            } catch (IOException | InterruptedException ignored) {
-                //
-            } finally {
-                try {
-                    out.close();
-                } catch (IOException ignored) {}
+    /* ---------------- */
+    /* Out of the sink  */
+    /* ---------------- */
+
+    public static SinkPump drainSinkToOutputStream(@NonNull OutputStream out, @NonNull SinkBuffer sb) {
+        return drainSinkToOutputStream(out, sb, BufferPool.DEFAULT);
+    }
+
+    /**
+     * @param pool the pool to take the transfer buffer from.
+     */
+    public static SinkPump drainSinkToOutputStream(@NonNull OutputStream out, @NonNull SinkBuffer sb, @NonNull BufferPool pool) {
+        return start("Sink -> Stream", sb, pool, out, (pump) -> {
+            while (!pump.isStopped() && sb.isOpen()) {
+                byte[] buf = pump.buffer();
+                int read = extractChunk(sb, buf, pump.getChunkSize());
+                if (read == 0) continue;
+
+                out.write(buf, 0, read);
+                pump.transferred(read, true);
             }
         });
-        thread.setDaemon(false);
-        thread.setName("SinkUtil | Sink -> Stream | #" + num++);
-        thread.start();
     }
 
-    public static void drainSinkToConsumer(@NonNull Consumer<byte[]> consumer, @NonNull SinkBuffer sb) {
-        Thread thread = new Thread(() -> {
-            try {
-                byte[] buf = new byte[2048];
-                int read;
-                while (sb.isOpen()) {
-                    read = sb.extract(buf, 0, buf.length);
-
-                    byte[] data = new byte[read];
-                    System.arraycopy(buf, 0, data, 0, read);
-                    consumer.accept(data);
-                }
-            } catch (IOException | InterruptedException ignored) {}
+    /**
+     * @apiNote The consumer is handed a fresh array for every chunk, prefer
+     *          {@link #drainSinkToByteConsumer(ByteConsumer, SinkBuffer)} which
+     *          doesn't copy.
+     */
+    public static SinkPump drainSinkToConsumer(@NonNull Consumer<byte[]> consumer, @NonNull SinkBuffer sb) {
+        return drainSinkToConsumer(consumer, sb, BufferPool.DEFAULT);
+    }
+
+    /**
+     * @param pool the pool to take the transfer buffer from.
+     */
+    public static SinkPump drainSinkToConsumer(@NonNull Consumer<byte[]> consumer, @NonNull SinkBuffer sb, @NonNull BufferPool pool) {
+        return drainSinkToByteConsumer((buf, off, len) -> {
+            byte[] data = new byte[len]; // The consumer gets to keep this one.
+            System.arraycopy(buf, off, data, 0, len);
+            consumer.accept(data);
+        }, sb, pool);
+    }
+
+    /**
+     * Hands each chunk to the consumer straight from the (reused) transfer
+     * buffer.
+     */
+    public static SinkPump drainSinkToByteConsumer(@NonNull ByteConsumer consumer, @NonNull SinkBuffer sb) {
+        return drainSinkToByteConsumer(consumer, sb, BufferPool.DEFAULT);
+    }
+
+    /**
+     * @param pool the pool to take the transfer buffer from.
+     */
+    public static SinkPump drainSinkToByteConsumer(@NonNull ByteConsumer consumer, @NonNull SinkBuffer sb, @NonNull BufferPool pool) {
+        return start("Sink -> Consumer", sb, pool, null, (pump) -> {
+            while (!pump.isStopped() && sb.isOpen()) {
+                byte[] buf = pump.buffer();
+                int read = extractChunk(sb, buf, pump.getChunkSize());
+                if (read == 0) continue;
+
+                consumer.accept(buf, 0, read);
+                pump.transferred(read, true);
+            }
         });
-        thread.setDaemon(false);
-        thread.setName("SinkUtil | Sink -> Consumer | #" + num++);
-        thread.start();
+    }
+
+    /**
+     * Takes whatever is buffered, up to chunkSize. If nothing is buffered then
+     * padding strategies pad a minimum-sized chunk as usual, everything else waits
+     * for data and returns 0.
+     */
+    private static int extractChunk(SinkBuffer sb, byte[] buf, int chunkSize) throws IOException, InterruptedException {
+        int read = sb.tryExtract(buf, 0, chunkSize);
+        if (read > 0) return read;
+
+        switch (sb.getExtractionStrategy()) {
+            case NULL_ON_UNDERRUN:
+            case LOOP_ON_UNDERRUN:
+                return sb.extract(buf, 0, SinkPump.MIN_CHUNK_SIZE);
+
+            default:
+                try {
+                    sb.whenReadable(1).await();
+                } catch (IOException | InterruptedException | RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IOException(t);
+                }
+                return 0;
+        }
     }
 
 }
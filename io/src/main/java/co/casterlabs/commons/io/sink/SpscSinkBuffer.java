@@ -0,0 +1,409 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+
+/**
+ * A lock-free {@link SinkBuffer} for exactly one producer thread and exactly
+ * one consumer thread. Neither side takes a lock, and a thread is only parked
+ * (and only woken up) when a blocking strategy actually has to wait.
+ * 
+ * <p>
+ * The strategies behave exactly as they do in {@link SinkBuffer}.
+ * 
+ * @implNote The capacity is rounded up to the next power of two. Calling
+ *           {@link #insert(byte[], int, int)} from more than one thread at a
+ *           time (or {@link #extract(byte[], int, int)} from more than one
+ *           thread at a time) will corrupt the buffer.
+ */
+public class SpscSinkBuffer extends SinkBuffer {
+    private final byte[] ring;
+    private final int mask;
+
+    // Both indices only ever increase, the ring position is index & mask.
+    private final _PaddedIndex head = new _PaddedIndex(); // Written by the consumer.
+    private final _PaddedIndex tail = new _PaddedIndex(); // Written by the producer.
+
+    private long producerCachedHead = 0; // Only touched by the producer.
+    private long consumerCachedTail = 0; // Only touched by the consumer.
+
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    private volatile boolean open = true;
+
+    /**
+     * @param  bufferSize               the minimum size of the internal buffer,
+     *                                  rounded up to a power of two.
+     * 
+     * @throws IllegalArgumentException if bufferSize is not greater than zero or
+     *                                  larger than 2^30
+     */
+    public SpscSinkBuffer(
+        int bufferSize, @NonNull InsertionStrategy insertionStrategy,
+        @NonNull ExtractionStrategy extractionStrategy
+    ) {
+        super(insertionStrategy, extractionStrategy);
+
+        if (bufferSize <= 0 || bufferSize > 1 << 30) {
+            throw new IllegalArgumentException("Buffer size MUST be greater than zero and at most 2^30");
+        }
+
+        int capacity = bufferSize == 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+        this.ring = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!this.open) {
+            throw new IOException("The buffer has been closed.");
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return this.ring.length;
+    }
+
+    @Override
+    public int getAmountBuffered() {
+        // Read head first, both only ever move forward so a third thread can then
+        // never see a negative amount. It can still see the head from before a drain
+        // and the tail from after a refill, so clamp to the capacity too.
+        long head = this.head.value;
+        long tail = this.tail.value;
+        return (int) Math.min(this.ring.length, Math.max(0, tail - head));
+    }
+
+    /**
+     * Parks the current thread until it is unparked, or until the deadline when
+     * timed.
+     * 
+     * @return false if the deadline has passed.
+     */
+    private boolean park(boolean timed, long deadline) throws InterruptedException {
+        if (timed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            LockSupport.parkNanos(this, remaining);
+        } else {
+            LockSupport.park(this);
+        }
+        if (Thread.interrupted()) throw new InterruptedException();
+        return true;
+    }
+
+    /* ---------------- */
+    /* Producer         */
+    /* ---------------- */
+
+    /**
+     * @return the free space, only re-reading the consumer's index if our cached
+     *         copy says there isn't enough.
+     */
+    private int free(int wanted) {
+        long tail = this.tail.value;
+        int free = this.ring.length - (int) (tail - this.producerCachedHead);
+        if (free < wanted) {
+            this.producerCachedHead = this.head.value;
+            free = this.ring.length - (int) (tail - this.producerCachedHead);
+        }
+        return free;
+    }
+
+    /**
+     * @return the free space, or 0 if the deadline passed.
+     */
+    private int awaitFree(boolean timed, long deadline) throws InterruptedException, IOException {
+        int free = this.free(1);
+        if (free > 0) return free;
+
+        long start = System.nanoTime();
+        this.waitingProducer = Thread.currentThread();
+        try {
+            while ((free = this.free(1)) == 0) {
+                this.ensureOpen();
+                if (!park(timed, deadline)) return 0;
+            }
+            return free;
+        } finally {
+            this.waitingProducer = null;
+            this.metricBlocked(true, System.nanoTime() - start);
+        }
+    }
+
+    private void put(byte[] buf, int off, int len) {
+        if (len == 0) return;
+
+        long tail = this.tail.value;
+        int pos = (int) tail & this.mask;
+        int firstChunk = Math.min(len, this.ring.length - pos);
+
+        System.arraycopy(buf, off, this.ring, pos, firstChunk);
+        if (firstChunk < len) {
+            System.arraycopy(buf, off + firstChunk, this.ring, 0, len - firstChunk); // Wrap around.
+        }
+
+        this.tail.value = tail + len; // Publish.
+        this.metricIn(len);
+
+        Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        this.stateChanged();
+    }
+
+    /**
+     * @throws SinkBuffereringError if there is not enough space in the buffer AND
+     *                              the strategy is
+     *                              {InsertionStrategy#THROW_ON_OVERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed.
+     */
+    @Override
+    public void insert(byte[] buf, int bufOffset, int amountToInsert) throws InterruptedException, IOException {
+        this.insert0(buf, bufOffset, amountToInsert, false, 0);
+    }
+
+    @Override
+    public int insert(byte[] buf, int bufOffset, int amountToInsert, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.insert0(buf, bufOffset, amountToInsert, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public int tryInsert(byte[] buf, int bufOffset, int amountToInsert) throws IOException {
+        this.ensureOpen();
+
+        int amount = Math.min(this.free(amountToInsert), amountToInsert);
+        this.put(buf, bufOffset, amount);
+        return amount;
+    }
+
+    private int insert0(byte[] buf, int bufOffset, int amountToInsert, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        if (this.free(amountToInsert) < amountToInsert) {
+            this.metricOverrun(this.getInsertionStrategy() == InsertionStrategy.DROP_ON_OVERRUN ? amountToInsert - this.free(amountToInsert) : 0);
+
+            switch (this.getInsertionStrategy()) {
+                case BLOCK_ON_OVERRUN: {
+                    final long deadline = System.nanoTime() + timeoutNanos;
+
+                    int inserted = 0;
+                    while (inserted < amountToInsert) {
+                        int free = this.awaitFree(timed, deadline);
+                        if (free == 0) break; // Timed out.
+
+                        int chunk = Math.min(free, amountToInsert - inserted);
+                        this.put(buf, bufOffset + inserted, chunk);
+                        inserted += chunk;
+                    }
+                    return inserted;
+                }
+
+                case DROP_ON_OVERRUN:
+                    amountToInsert = this.free(amountToInsert);
+                    break; // Fall through to the below code.
+
+                case THROW_ON_OVERRUN:
+                    throw new SinkBuffereringError();
+            }
+        }
+
+        this.put(buf, bufOffset, amountToInsert);
+        return amountToInsert;
+    }
+
+    /* ---------------- */
+    /* Consumer         */
+    /* ---------------- */
+
+    /**
+     * @return the available data, only re-reading the producer's index if our
+     *         cached copy says there isn't enough.
+     */
+    private int available(int wanted) {
+        long head = this.head.value;
+        int available = (int) (this.consumerCachedTail - head);
+        if (available < wanted) {
+            this.consumerCachedTail = this.tail.value;
+            available = (int) (this.consumerCachedTail - head);
+        }
+        return available;
+    }
+
+    /**
+     * @return the available data, or 0 if the deadline passed.
+     */
+    private int awaitAvailable(boolean timed, long deadline) throws InterruptedException, IOException {
+        int available = this.available(1);
+        if (available > 0) return available;
+
+        long start = System.nanoTime();
+        this.waitingConsumer = Thread.currentThread();
+        try {
+            while ((available = this.available(1)) == 0) {
+                this.ensureOpen();
+                if (!park(timed, deadline)) return 0;
+            }
+            return available;
+        } finally {
+            this.waitingConsumer = null;
+            this.metricBlocked(false, System.nanoTime() - start);
+        }
+    }
+
+    private void take(byte[] buf, int off, int len) {
+        if (len == 0) return;
+
+        long head = this.head.value;
+        int pos = (int) head & this.mask;
+        int firstChunk = Math.min(len, this.ring.length - pos);
+
+        System.arraycopy(this.ring, pos, buf, off, firstChunk);
+        if (firstChunk < len) {
+            System.arraycopy(this.ring, 0, buf, off + firstChunk, len - firstChunk); // Wrap around.
+        }
+
+        this.head.value = head + len; // Release the space.
+        this.metricOut(len);
+
+        Thread producer = this.waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        this.stateChanged();
+    }
+
+    /**
+     * @return                      the amount of bytes placed in buf
+     * 
+     * @throws SinkBuffereringError if there is not enough data in the buffer AND
+     *                              the strategy is
+     *                              {@link ExtractionStrategy#THROW_ON_UNDERRUN}.
+     * 
+     * @throws IOException          if the buffer has been closed.
+     */
+    @Override
+    public int extract(byte[] buf, int bufOffset, final int amountToExtract) throws InterruptedException, IOException {
+        return this.extract0(buf, bufOffset, amountToExtract, false, 0);
+    }
+
+    @Override
+    public int extract(byte[] buf, int bufOffset, int amountToExtract, long timeout, @NonNull TimeUnit unit) throws InterruptedException, IOException {
+        return this.extract0(buf, bufOffset, amountToExtract, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public int tryExtract(byte[] buf, int bufOffset, int amountToExtract) throws IOException {
+        this.ensureOpen();
+
+        int amount = Math.min(this.available(amountToExtract), amountToExtract);
+        this.take(buf, bufOffset, amount);
+        return amount;
+    }
+
+    @SuppressWarnings("deprecation")
+    private int extract0(byte[] buf, int bufOffset, final int amountToExtract, boolean timed, long timeoutNanos) throws InterruptedException, IOException {
+        this.ensureOpen();
+
+        int available = this.available(amountToExtract);
+        if (available < amountToExtract) {
+            boolean pads = this.getExtractionStrategy() == ExtractionStrategy.NULL_ON_UNDERRUN || this.getExtractionStrategy() == ExtractionStrategy.LOOP_ON_UNDERRUN;
+            this.metricUnderrun(pads ? amountToExtract - available : 0);
+
+            switch (this.getExtractionStrategy()) {
+                case BLOCK_ON_UNDERRUN: {
+                    final long deadline = System.nanoTime() + timeoutNanos;
+
+                    int extracted = 0;
+                    while (extracted < amountToExtract) {
+                        int ready = this.awaitAvailable(timed, deadline);
+                        if (ready == 0) break; // Timed out.
+
+                        int chunk = Math.min(ready, amountToExtract - extracted);
+                        this.take(buf, bufOffset + extracted, chunk);
+                        extracted += chunk;
+                    }
+                    return extracted;
+                }
+
+                case THROW_ON_UNDERRUN:
+                    throw new SinkBuffereringError();
+
+                case NULL_ON_UNDERRUN: {
+                    this.take(buf, bufOffset, available);
+                    for (int idx = bufOffset + available; idx < bufOffset + amountToExtract; idx++) {
+                        buf[idx] = this.nullValue;
+                    }
+                    return amountToExtract;
+                }
+
+                case LOOP_ON_UNDERRUN: {
+                    if (available == 0) {
+                        // Nothing to loop over.
+                        for (int idx = bufOffset; idx < bufOffset + amountToExtract; idx++) {
+                            buf[idx] = this.nullValue;
+                        }
+                        return amountToExtract;
+                    }
+
+                    this.take(buf, bufOffset, available);
+                    for (int written = available; written < amountToExtract;) {
+                        int len = Math.min(available, amountToExtract - written);
+                        System.arraycopy(buf, bufOffset, buf, bufOffset + written, len);
+                        written += len;
+                    }
+                    return amountToExtract;
+                }
+
+                case SHRINK_ON_UNDERRUN:
+                    this.take(buf, bufOffset, available);
+                    return available;
+            }
+        }
+
+        this.take(buf, bufOffset, amountToExtract);
+        return amountToExtract;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SpscSinkBuffer(capacity=%d, buffered=%d, open=%b)", this.ring.length, this.getAmountBuffered(), this.open);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.open) return;
+        this.open = false;
+
+        Thread producer = this.waitingProducer;
+        if (producer != null) LockSupport.unpark(producer);
+
+        Thread consumer = this.waitingConsumer;
+        if (consumer != null) LockSupport.unpark(consumer);
+
+        this.readiness.close();
+    }
+
+}
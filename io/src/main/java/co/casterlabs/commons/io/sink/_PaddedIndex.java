@@ -0,0 +1,23 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+/**
+ * A ring index that sits on its own cache line so that a producer and consumer
+ * updating their respective indices don't false-share.
+ */
+@SuppressWarnings("unused")
+class _PaddedIndex {
+    private long p1, p2, p3, p4, p5, p6, p7;
+    volatile long value = 0;
+    private long q1, q2, q3, q4, q5, q6, q7;
+}
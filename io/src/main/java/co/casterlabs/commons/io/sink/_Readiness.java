@@ -0,0 +1,85 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.sink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import co.casterlabs.commons.async.promise.Promise;
+import co.casterlabs.commons.async.promise.PromiseResolver;
+
+/**
+ * Tracks the pending whenReadable()/whenWritable() promises of a buffer. The
+ * buffer calls {@link #update(int, int)} after every change, which is a single
+ * volatile read when nobody is waiting.
+ */
+class _Readiness {
+    private final List<Waiter> waiters = new ArrayList<>();
+    private volatile boolean pending = false;
+
+    /**
+     * @param readable true to wait for buffered data, false to wait for free
+     *                 space.
+     */
+    Promise<Void> add(boolean readable, int amount) {
+        PromiseResolver<Void> resolver = Promise.withResolvers();
+        synchronized (this) {
+            this.waiters.add(new Waiter(readable, amount, resolver));
+            this.pending = true;
+        }
+        return resolver.promise;
+    }
+
+    boolean isPending() {
+        return this.pending;
+    }
+
+    void update(int buffered, int free) {
+        synchronized (this) {
+            for (Iterator<Waiter> it = this.waiters.iterator(); it.hasNext();) {
+                Waiter waiter = it.next();
+                if ((waiter.readable ? buffered : free) >= waiter.amount) {
+                    it.remove();
+                    waiter.resolver.resolve();
+                }
+            }
+            this.pending = !this.waiters.isEmpty();
+        }
+    }
+
+    void close() {
+        if (!this.pending) return;
+
+        synchronized (this) {
+            for (Waiter waiter : this.waiters) {
+                waiter.resolver.reject(new IOException("The buffer has been closed."));
+            }
+            this.waiters.clear();
+            this.pending = false;
+        }
+    }
+
+    private static class Waiter {
+        private final boolean readable;
+        private final int amount;
+        private final PromiseResolver<Void> resolver;
+
+        Waiter(boolean readable, int amount, PromiseResolver<Void> resolver) {
+            this.readable = readable;
+            this.amount = amount;
+            this.resolver = resolver;
+        }
+    }
+
+}
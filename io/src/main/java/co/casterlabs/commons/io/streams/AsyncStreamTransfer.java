@@ -0,0 +1,307 @@
+/* 
+Copyright 2026 Casterlabs
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and limitations under the License.
+*/
+package co.casterlabs.commons.io.streams;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.commons.async.AsyncTask;
+import co.casterlabs.commons.async.promise.Promise;
+import co.casterlabs.commons.async.promise.PromiseResolver;
+import co.casterlabs.commons.io.bytes.BufferPool;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Copies a stream to another in the background. Reading and writing happen on
+ * separate tasks that hand two buffers back and forth, so the next read is
+ * already in flight while the previous chunk is being written. On high-latency
+ * links this roughly doubles throughput compared to
+ * {@link StreamUtil#streamTransfer(InputStream, OutputStream, int)}.
+ * 
+ * <p>
+ * Configure the transfer with the setters and then call {@link #start()}.
+ * 
+ * @implNote The streams are NOT automatically closed for you. Cancelling does
+ *           not interrupt a read or write that is already in progress, close
+ *           the stream yourself if it may be stuck.
+ */
+@Accessors(chain = true)
+public class AsyncStreamTransfer {
+    private static final Chunk END = new Chunk(null);
+
+    private final InputStream source;
+    private final OutputStream dest;
+
+    /**
+     * The size of each of the two transfer buffers. Defaults to 64kb.
+     */
+    private @Setter int bufferSize = 64 * 1024;
+
+    /**
+     * The maximum amount of bytes to transfer, any negative value (the default)
+     * for unconstrained.
+     */
+    private @Setter long limit = -1;
+
+    /**
+     * The maximum throughput in bytes per second, zero or negative (the default)
+     * for unlimited.
+     */
+    private @Setter long rateLimit = -1;
+
+    private @Setter @Nullable ProgressListener progressListener;
+
+    /**
+     * The minimum time between two progress updates. Defaults to 250ms.
+     */
+    private @Setter long progressIntervalMillis = 250;
+
+    private @Setter @NonNull BufferPool pool = BufferPool.DEFAULT;
+
+    /**
+     * Runs the reader and the writer. Defaults to {@link AsyncTask}'s daemon
+     * pool.
+     */
+    private @Setter @NonNull Executor executor = (task) -> AsyncTask.create(task);
+
+    private final PromiseResolver<Long> resolver = Promise.withResolvers();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean settled = new AtomicBoolean(false);
+    private final AtomicInteger runningTasks = new AtomicInteger(2);
+    private volatile boolean stopped = false;
+
+    // Room for both chunks plus the END marker, so offering never blocks.
+    private final BlockingQueue<Chunk> empty = new ArrayBlockingQueue<>(3);
+    private final BlockingQueue<Chunk> full = new ArrayBlockingQueue<>(3);
+    private Chunk[] chunks;
+
+    private volatile long startNanos;
+    private volatile long bytesTransferred = 0; // Only ever written by the writer.
+    private long lastProgressNanos;
+
+    public AsyncStreamTransfer(@NonNull InputStream source, @NonNull OutputStream dest) {
+        this.source = source;
+        this.dest = dest;
+    }
+
+    /**
+     * Starts the transfer.
+     * 
+     * @return                       a promise that resolves with the amount of
+     *                               bytes transferred once the source is exhausted
+     *                               (or the limit is reached) and the destination
+     *                               has been flushed. It rejects if either stream
+     *                               fails, or with a {@link CancellationException}
+     *                               if the transfer is cancelled.
+     * 
+     * @throws IllegalStateException if the transfer has already been started.
+     */
+    public Promise<Long> start() {
+        if (!this.started.compareAndSet(false, true)) {
+            throw new IllegalStateException("The transfer has already been started.");
+        }
+        if (this.bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size MUST be greater than zero");
+        }
+        if (this.stopped) {
+            // Cancelled before we got going, the promise is already rejected.
+            return this.resolver.promise;
+        }
+
+        this.chunks = new Chunk[] {
+                new Chunk(this.pool.take(this.bufferSize)),
+                new Chunk(this.pool.take(this.bufferSize))
+        };
+        this.empty.add(this.chunks[0]);
+        this.empty.add(this.chunks[1]);
+
+        this.startNanos = System.nanoTime();
+        this.lastProgressNanos = this.startNanos;
+
+        this.executor.execute(this::readLoop);
+        this.executor.execute(this::writeLoop);
+        return this.resolver.promise;
+    }
+
+    /**
+     * Stops the transfer, the promise is rejected with a
+     * {@link CancellationException}.
+     */
+    public void cancel() {
+        this.fail(new CancellationException("The transfer was cancelled."));
+    }
+
+    public Promise<Long> completion() {
+        return this.resolver.promise;
+    }
+
+    /**
+     * @return the amount of bytes written to the destination so far.
+     */
+    public long getBytesTransferred() {
+        return this.bytesTransferred;
+    }
+
+    /**
+     * @return the average throughput since the transfer started.
+     */
+    public double getBytesPerSecond() {
+        if (!this.started.get()) return 0;
+
+        long elapsed = System.nanoTime() - this.startNanos;
+        return elapsed <= 0 ? 0 : this.bytesTransferred * 1_000_000_000d / elapsed;
+    }
+
+    /* ---------------- */
+    /* Engine           */
+    /* ---------------- */
+
+    private void readLoop() {
+        try {
+            int maxChunk = this.bufferSize;
+            if (this.rateLimit > 0) {
+                // Smaller chunks keep a rate-limited transfer smooth.
+                maxChunk = (int) Math.max(1, Math.min(maxChunk, this.rateLimit / 10));
+            }
+
+            long remaining = this.limit < 0 ? Long.MAX_VALUE : this.limit;
+            while (remaining > 0) {
+                Chunk chunk = this.empty.take();
+                if (chunk == END || this.stopped) return;
+
+                int read = this.source.read(chunk.buf, 0, (int) Math.min(maxChunk, remaining));
+                if (read == -1) break;
+
+                chunk.len = read;
+                remaining -= read;
+                this.full.add(chunk);
+            }
+        } catch (Throwable t) {
+            this.fail(t);
+        } finally {
+            // However we got here, the writer has to be told. If fail() already
+            // posted the marker the queue may be full, which is fine.
+            this.full.offer(END);
+            this.taskFinished();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                Chunk chunk = this.full.take();
+                if (chunk == END || this.stopped) break;
+
+                this.dest.write(chunk.buf, 0, chunk.len);
+                this.bytesTransferred += chunk.len;
+                this.empty.add(chunk);
+
+                this.pace();
+                this.reportProgress(false);
+            }
+
+            if (this.stopped) return;
+
+            this.dest.flush();
+            this.reportProgress(true);
+
+            if (this.settled.compareAndSet(false, true)) {
+                this.resolver.resolve(this.bytesTransferred);
+            }
+        } catch (Throwable t) {
+            this.fail(t);
+        } finally {
+            this.taskFinished();
+        }
+    }
+
+    /**
+     * Sleeps for however long we are ahead of the rate limit.
+     */
+    private void pace() {
+        if (this.rateLimit <= 0) return;
+
+        long expectedNanos = (long) (this.bytesTransferred * 1_000_000_000d / this.rateLimit);
+        long ahead = expectedNanos - (System.nanoTime() - this.startNanos);
+        while (ahead > 0 && !this.stopped) {
+            LockSupport.parkNanos(ahead);
+            ahead = expectedNanos - (System.nanoTime() - this.startNanos);
+        }
+    }
+
+    private void reportProgress(boolean force) {
+        ProgressListener listener = this.progressListener;
+        if (listener == null) return;
+
+        long now = System.nanoTime();
+        if (!force && now - this.lastProgressNanos < this.progressIntervalMillis * 1_000_000) return;
+
+        this.lastProgressNanos = now;
+        listener.onProgress(this.bytesTransferred, this.getBytesPerSecond());
+    }
+
+    private void fail(Throwable t) {
+        this.stopped = true;
+
+        // Wake up both sides, there is always room for the marker.
+        this.empty.offer(END);
+        this.full.offer(END);
+
+        if (this.settled.compareAndSet(false, true)) {
+            this.resolver.reject(t);
+        }
+    }
+
+    /**
+     * The buffers are only returned once both tasks are done with them.
+     */
+    private void taskFinished() {
+        if (this.runningTasks.decrementAndGet() == 0) {
+            for (Chunk chunk : this.chunks) {
+                this.pool.give(chunk.buf);
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final byte[] buf;
+        private int len;
+
+        Chunk(byte[] buf) {
+            this.buf = buf;
+        }
+    }
+
+    @FunctionalInterface
+    public static interface ProgressListener {
+
+        /**
+         * @param bytesTransferred the amount of bytes written so far.
+         * @param bytesPerSecond   the average throughput since the transfer
+         *                         started.
+         */
+        public void onProgress(long bytesTransferred, double bytesPerSecond);
+
+    }
+
+}
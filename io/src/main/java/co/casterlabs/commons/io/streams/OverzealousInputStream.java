@@ -4,31 +4,56 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.locks.ReentrantLock;
 
+import co.casterlabs.commons.io.bytes.BufferPool;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /**
  * Basically we buffered too many bytes, so we need to give them back during a
  * read.
+ * 
+ * <p>
+ * The overage buffer is taken from a pool when bytes are appended and given
+ * back as soon as they have all been read, so forgetting to close this stream
+ * does not leak pooled buffers.
  */
-@RequiredArgsConstructor
 public class OverzealousInputStream extends InputStream {
+    private static final int INITIAL_OVERAGE_SIZE = 1024;
+
     private final ReentrantLock lock = new ReentrantLock();
 
     private final InputStream underlying;
+    private final BufferPool pool;
 
-    private byte[] overage = new byte[1024];
+    private byte[] overage = null;
     private int overageEnd = 0;
     private int overageIndex = 0;
 
+    public OverzealousInputStream(@NonNull InputStream underlying) {
+        this(underlying, BufferPool.DEFAULT);
+    }
+
+    /**
+     * @param pool the pool to take the overage buffer from.
+     */
+    public OverzealousInputStream(@NonNull InputStream underlying, @NonNull BufferPool pool) {
+        this.underlying = underlying;
+        this.pool = pool;
+    }
+
     private void ensureCapacity(int additionalSize) {
+        if (this.overage == null) {
+            this.overage = this.pool.take(Math.max(INITIAL_OVERAGE_SIZE, additionalSize));
+            return;
+        }
+
         int requiredCapacity = this.overageEnd - this.overageIndex + additionalSize;
         if (requiredCapacity > this.overage.length) {
             int newCapacity = Math.max(this.overage.length * 2, requiredCapacity);
-            byte[] newBuffer = new byte[newCapacity];
+            byte[] newBuffer = this.pool.take(newCapacity);
             System.arraycopy(this.overage, this.overageIndex, newBuffer, 0, this.overageEnd - this.overageIndex);
             this.overageEnd -= this.overageIndex;
             this.overageIndex = 0;
+            this.pool.give(this.overage);
             this.overage = newBuffer;
         } else if (this.overageIndex > 0) {
             // Shift data if there’s unused space at the beginning
@@ -57,7 +82,9 @@ public class OverzealousInputStream extends InputStream {
         this.lock.lock();
         try {
             if (this.overageIndex < this.overageEnd) {
-                return this.overage[this.overageIndex++];
+                int result = this.overage[this.overageIndex++] & 0xFF;
+                this.releaseIfDrained();
+                return result;
             }
 
             return this.underlying.read();
@@ -75,6 +102,7 @@ public class OverzealousInputStream extends InputStream {
                 int amount = Math.min(this.overageEnd - this.overageIndex, len);
                 System.arraycopy(this.overage, this.overageIndex, b, off, amount);
                 this.overageIndex += amount;
+                this.releaseIfDrained();
                 return amount;
             }
 
@@ -97,4 +125,28 @@ public class OverzealousInputStream extends InputStream {
         }
     }
 
+    /**
+     * Discards any overage and gives its buffer back to the pool. The underlying
+     * stream is NOT closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            this.overageIndex = this.overageEnd;
+            this.releaseIfDrained();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void releaseIfDrained() {
+        if (this.overage != null && this.overageIndex == this.overageEnd) {
+            this.pool.give(this.overage);
+            this.overage = null;
+            this.overageEnd = 0;
+            this.overageIndex = 0;
+        }
+    }
+
 }
@@ -14,29 +14,52 @@ package co.casterlabs.commons.io.streams;
 import java.io.IOException;
 import java.io.InputStream;
 
-import lombok.RequiredArgsConstructor;
+import co.casterlabs.commons.io.bytes.BufferPool;
+import lombok.NonNull;
 
 /**
  * An InputStream wrapper that allows you to "peek" ahead at bytes without
  * consuming them like a read() would.
  * 
+ * <p>
+ * Peeked bytes are kept in a ring buffer that grows by doubling, so peeking
+ * byte-by-byte further and further ahead is amortized linear. The ring is
+ * taken from a {@link BufferPool} and given back once all of the peeked bytes
+ * have been read.
+ * 
  * TODO Implement mark() behavior.
  * 
  * @see {@link PeekableInputStream#peek(int)}
  */
-@RequiredArgsConstructor
 public class PeekableInputStream extends InputStream {
+    private static final int MIN_BUFFER_SIZE = 512;
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
     private final InputStream underlying;
+    private final BufferPool pool;
+
+    private byte[] ring = null;
+    private int head = 0;
+    private int count = 0;
+
+    public PeekableInputStream(@NonNull InputStream underlying) {
+        this(underlying, BufferPool.DEFAULT);
+    }
 
-    private byte[] currentBuffer = null;
-    private int bufferPos = 0;
+    /**
+     * @param pool the pool to take peek buffers from.
+     */
+    public PeekableInputStream(@NonNull InputStream underlying, @NonNull BufferPool pool) {
+        this.underlying = underlying;
+        this.pool = pool;
+    }
 
     /**
      * @return if the stream is current buffering data as the result of a peek()
      *         operation.
      */
     public synchronized boolean hasDataBuffered() {
-        return this.currentBuffer != null;
+        return this.count > 0;
     }
 
     /**
@@ -44,11 +67,7 @@ public class PeekableInputStream extends InputStream {
      *         if there is no data peeked.
      */
     public synchronized int amountBuffered() {
-        if (this.hasDataBuffered()) {
-            return this.currentBuffer.length - this.bufferPos;
-        } else {
-            return 0;
-        }
+        return this.count;
     }
 
     /**
@@ -68,59 +87,148 @@ public class PeekableInputStream extends InputStream {
             throw new IllegalArgumentException("`nbytes` cannot negative.");
         }
 
-        if (this.amountBuffered() < nbytes) {
-            if (this.hasDataBuffered()) {
-                // We need to append to our existing buffer.
-                final int oldAmountBuffered = this.amountBuffered();
-                final byte[] oldBuffer = this.currentBuffer;
-
-                final int newBufferSize = nbytes;
-
-                this.currentBuffer = new byte[newBufferSize];
-                System.arraycopy(oldBuffer, this.bufferPos, this.currentBuffer, 0, oldAmountBuffered);
-
-                this.bufferPos = 0;
+        this.fill(nbytes); // Less will be buffered if the stream ends first.
+    }
 
-                int bytesReadIntoBuffer = oldAmountBuffered;
-                do {
-                    // Keep reading into the buffer until we have the correct amount.
-                    bytesReadIntoBuffer += this.underlying.read(this.currentBuffer, bytesReadIntoBuffer, newBufferSize - bytesReadIntoBuffer);
-                } while (bytesReadIntoBuffer < newBufferSize);
-            } else {
-                // We need to create a buffer.
-                final int toRead = nbytes;
+    /**
+     * @param  ahead                    the amount of bytes to skip/peek over, 1
+     *                                  being the next byte that would be read.
+     * 
+     * @return                          the value in the stream at that position,
+     *                                  or -1 if the stream ends before it.
+     * 
+     * @throws IllegalArgumentException if {@code ahead} is less than 1
+     * @throws IOException              if an I/O error occurs
+     * @throws OutOfMemoryError         if there is not enough memory to buffer the
+     *                                  peeked bytes
+     */
+    public synchronized int peek(int ahead) throws IOException {
+        if (ahead < 1) {
+            throw new IllegalArgumentException("`ahead` must be at least 1, use a time machine next time.");
+        }
 
-                this.currentBuffer = new byte[toRead];
-                this.bufferPos = 0;
+        if (!this.fill(ahead)) {
+            return -1;
+        }
 
-                int bytesReadIntoBuffer = 0;
-                do {
-                    // Keep reading into the buffer until we have the correct amount.
-                    bytesReadIntoBuffer += this.underlying.read(this.currentBuffer, bytesReadIntoBuffer, toRead - bytesReadIntoBuffer);
-                } while (bytesReadIntoBuffer < toRead);
-            }
-        } // Otherwise, we already have the data buffered :D
+        // Gaze upon the buffer for the peeked value.
+        return this.byteAt(ahead - 1) & 0xFF;
     }
 
     /**
-     * @param  ahead                    the amount of bytes to skip/peek over.
+     * Copies buffered bytes into dst without consuming them, reading more from the
+     * underlying stream if needed.
      * 
-     * @return                          the value in the stream at that position
+     * @param  ahead                    the amount of bytes to skip before copying,
+     *                                  0 being the next byte that would be read.
      * 
-     * @throws IllegalArgumentException if {@code ahead} is negative
+     * @return                          the amount of bytes copied, which is only
+     *                                  less than len if the stream ends. -1 if the
+     *                                  stream ends before {@code ahead}.
+     * 
+     * @throws IllegalArgumentException if {@code ahead} or {@code len} is negative
      * @throws IOException              if an I/O error occurs
      * @throws OutOfMemoryError         if there is not enough memory to buffer the
      *                                  peeked bytes
      */
-    public synchronized int peek(int ahead) throws IOException {
-        if (ahead < 0) {
-            throw new IllegalArgumentException("`ahead` cannot negative, use a time machine next time.");
+    public synchronized int peek(@NonNull byte[] dst, int ahead, int len) throws IOException {
+        if (ahead < 0 || len < 0) {
+            throw new IllegalArgumentException("`ahead` and `len` cannot be negative.");
+        }
+        if (len > dst.length) {
+            throw new IndexOutOfBoundsException("len " + len + " out of bounds for length " + dst.length);
+        }
+        if (len == 0) {
+            return 0;
         }
 
-        this.preBuffer(ahead); // Ensures the buffer has the data.
+        this.fill(checkedLookahead((long) ahead + len));
 
-        // Gaze upon the buffer for the peeked value.
-        return this.currentBuffer[this.bufferPos + ahead - 1];
+        int available = this.count - ahead;
+        if (available <= 0) {
+            return -1;
+        }
+
+        int amount = Math.min(len, available);
+        this.copyOut(ahead, dst, 0, amount);
+        return amount;
+    }
+
+    /**
+     * @return the position of the first occurrence of delimiter (0 being the next
+     *         byte that would be read), or -1 if the stream ends before one is
+     *         found. Everything up to and including the delimiter stays buffered.
+     * 
+     * @see    #peekUntil(byte, int)
+     */
+    public int peekUntil(byte delimiter) throws IOException {
+        return this.peekUntil(delimiter, MAX_BUFFER_SIZE);
+    }
+
+    /**
+     * @param  limit the maximum amount of bytes to look through.
+     * 
+     * @return       the position of the first occurrence of delimiter (0 being the
+     *               next byte that would be read), or -1 if the stream ends or the
+     *               limit is reached before one is found.
+     */
+    public synchronized int peekUntil(byte delimiter, int limit) throws IOException {
+        int scanned = 0;
+        while (true) {
+            int found = this.indexOfByte(delimiter, scanned, Math.min(this.count, limit));
+            if (found != -1) return found;
+
+            scanned = this.count;
+            if (scanned >= limit || !this.fill(scanned + 1)) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return the position of the first occurrence of pattern (0 being the next
+     *         byte that would be read), or -1 if the stream ends before it is
+     *         found.
+     * 
+     * @see    #indexOf(byte[], int)
+     */
+    public int indexOf(@NonNull byte[] pattern) throws IOException {
+        return this.indexOf(pattern, MAX_BUFFER_SIZE);
+    }
+
+    /**
+     * @param  limit the maximum amount of bytes to look through, the pattern must
+     *               end within them.
+     * 
+     * @return       the position of the first occurrence of pattern (0 being the
+     *               next byte that would be read), or -1 if the stream ends or the
+     *               limit is reached before it is found.
+     */
+    public synchronized int indexOf(@NonNull byte[] pattern, int limit) throws IOException {
+        if (pattern.length == 0) return 0;
+        if (pattern.length > limit) return -1;
+
+        int from = 0;
+        while (true) {
+            // Candidates must leave room for the whole pattern.
+            int lastStart = Math.min(this.count, limit) - pattern.length;
+
+            while (from <= lastStart) {
+                int candidate = this.indexOfByte(pattern[0], from, lastStart + 1);
+                if (candidate == -1) {
+                    from = lastStart + 1;
+                    break;
+                }
+                if (this.matchesAt(candidate, pattern)) {
+                    return candidate;
+                }
+                from = candidate + 1;
+            }
+
+            if (this.count >= limit || !this.fill(this.count + 1)) {
+                return -1;
+            }
+        }
     }
 
     /**
@@ -128,16 +236,12 @@ public class PeekableInputStream extends InputStream {
      */
     @Override
     public synchronized int read() throws IOException {
-        if (!this.hasDataBuffered()) {
+        if (this.count == 0) {
             return this.underlying.read();
         }
 
-        int result = this.currentBuffer[this.bufferPos++];
-
-        if (this.bufferPos == this.currentBuffer.length) {
-            this.currentBuffer = null;
-        }
-
+        int result = this.ring[this.head] & 0xFF;
+        this.consume(1);
         return result;
     }
 
@@ -146,19 +250,13 @@ public class PeekableInputStream extends InputStream {
      */
     @Override
     public synchronized int read(byte[] b, int off, int len) throws IOException {
-        if (!this.hasDataBuffered()) {
+        if (this.count == 0) {
             return this.underlying.read(b, off, len);
         }
 
-        int nread = Math.min(len, this.amountBuffered());
-        System.arraycopy(this.currentBuffer, this.bufferPos, b, off, nread);
-
-        this.bufferPos += nread; // Update the buffer pointer and check for reset.
-
-        if (this.bufferPos == this.currentBuffer.length) {
-            this.currentBuffer = null;
-        }
-
+        int nread = Math.min(len, this.count);
+        this.copyOut(0, b, off, nread);
+        this.consume(nread);
         return nread;
     }
 
@@ -167,18 +265,16 @@ public class PeekableInputStream extends InputStream {
      */
     @Override
     public synchronized long skip(long n) throws IOException {
-        if (!this.hasDataBuffered()) {
+        if (this.count == 0) {
             return this.underlying.skip(n);
         }
-
-        long nread = Math.min(n, this.amountBuffered());
-        this.bufferPos += nread; // Just move the pointer.
-
-        if (this.bufferPos == this.currentBuffer.length) {
-            this.currentBuffer = null;
+        if (n <= 0) {
+            return 0;
         }
 
-        return nread;
+        int nskipped = (int) Math.min(n, this.count);
+        this.consume(nskipped); // Just move the pointer.
+        return nskipped;
     }
 
     /**
@@ -186,11 +282,11 @@ public class PeekableInputStream extends InputStream {
      */
     @Override
     public synchronized int available() throws IOException {
-        if (!this.hasDataBuffered()) {
+        if (this.count == 0) {
             return this.underlying.available();
         }
 
-        return this.amountBuffered();
+        return this.count;
     }
 
     /**
@@ -205,8 +301,129 @@ public class PeekableInputStream extends InputStream {
      */
     @Override
     public void close() throws IOException {
-        this.currentBuffer = null;
+        synchronized (this) {
+            this.releaseBuffer();
+        }
         this.underlying.close();
     }
 
+    /* ---------------- */
+    /* Ring             */
+    /* ---------------- */
+
+    /**
+     * Reads from the underlying stream until at least nbytes are buffered.
+     * 
+     * @return false if the stream ended first.
+     */
+    private boolean fill(int nbytes) throws IOException {
+        while (this.count < nbytes) {
+            this.ensureCapacity(nbytes);
+
+            // Read straight into the free space after the tail, as much as the stream
+            // will give us.
+            int tail = this.wrap(this.head + (long) this.count);
+            int end = tail < this.head ? this.head : this.ring.length;
+
+            int read = this.underlying.read(this.ring, tail, end - tail);
+            if (read == -1) {
+                return false;
+            }
+            this.count += read;
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int nbytes) {
+        if (this.ring == null) {
+            this.ring = this.pool.take(Math.max(nbytes, MIN_BUFFER_SIZE));
+            this.head = 0;
+            return;
+        }
+        if (nbytes <= this.ring.length) {
+            return;
+        }
+
+        int newSize = (int) Math.min(MAX_BUFFER_SIZE, Math.max(nbytes, this.ring.length * 2L));
+        byte[] newRing = this.pool.take(newSize);
+        this.copyOut(0, newRing, 0, this.count);
+        this.pool.give(this.ring);
+
+        this.ring = newRing;
+        this.head = 0;
+    }
+
+    private void consume(int amount) {
+        this.count -= amount;
+        if (this.count == 0) {
+            this.releaseBuffer();
+        } else {
+            this.head = this.wrap(this.head + (long) amount);
+        }
+    }
+
+    private void releaseBuffer() {
+        if (this.ring != null) {
+            this.pool.give(this.ring);
+        }
+        this.ring = null;
+        this.head = 0;
+        this.count = 0;
+    }
+
+    private int wrap(long index) {
+        return (int) (index >= this.ring.length ? index - this.ring.length : index);
+    }
+
+    private byte byteAt(int offset) {
+        return this.ring[this.wrap(this.head + (long) offset)];
+    }
+
+    /**
+     * Copies len buffered bytes, starting offset bytes after the head.
+     */
+    private void copyOut(int offset, byte[] dst, int off, int len) {
+        int start = this.wrap(this.head + (long) offset);
+        int first = Math.min(len, this.ring.length - start);
+
+        System.arraycopy(this.ring, start, dst, off, first);
+        System.arraycopy(this.ring, 0, dst, off + first, len - first);
+    }
+
+    /**
+     * Scans the buffered bytes between from (inclusive) and to (exclusive) in
+     * place.
+     */
+    private int indexOfByte(byte value, int from, int to) {
+        if (from >= to) return -1;
+
+        int start = this.wrap(this.head + (long) from);
+        int firstEnd = (int) Math.min(this.ring.length, start + (long) (to - from));
+        for (int idx = start; idx < firstEnd; idx++) {
+            if (this.ring[idx] == value) return from + idx - start;
+        }
+
+        // The wrapped around part.
+        int scanned = firstEnd - start;
+        int secondEnd = to - from - scanned;
+        for (int idx = 0; idx < secondEnd; idx++) {
+            if (this.ring[idx] == value) return from + scanned + idx;
+        }
+        return -1;
+    }
+
+    private boolean matchesAt(int offset, byte[] pattern) {
+        for (int idx = 1; idx < pattern.length; idx++) {
+            if (this.byteAt(offset + idx) != pattern[idx]) return false;
+        }
+        return true;
+    }
+
+    private static int checkedLookahead(long nbytes) {
+        if (nbytes > MAX_BUFFER_SIZE) {
+            throw new OutOfMemoryError("Cannot peek " + nbytes + " bytes ahead.");
+        }
+        return (int) nbytes;
+    }
+
 }
@@ -11,15 +11,44 @@ See the License for the specific language governing permissions and limitations
 */
 package co.casterlabs.commons.io.streams;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
+import co.casterlabs.commons.async.promise.Promise;
+import co.casterlabs.commons.io.bytes.BufferPool;
 import lombok.NonNull;
 
 public class StreamUtil {
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    private static final long CHANNEL_TRANSFER_CHUNK = 8 /*mb*/ * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Whether or not a stream class declares its own (presumably faster)
+     * {@link InputStream#transferTo(OutputStream)}. Like with file copies, only
+     * the exact class counts: a subclass of e.g ByteArrayInputStream might
+     * override read() and would be bypassed by the inherited transferTo().
+     */
+    private static final ClassValue<Boolean> OVERRIDES_TRANSFER_TO = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("transferTo", OutputStream.class).getDeclaringClass() == type;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
 
     /**
      * @param    source      The data source.
@@ -41,26 +70,39 @@ public class StreamUtil {
      *                       try-with-resources block).
      */
     public static void streamTransfer(@NonNull InputStream source, @NonNull OutputStream dest, int bufferSize, long limit) throws IOException {
+        streamTransfer(source, dest, bufferSize, limit, BufferPool.DEFAULT);
+    }
+
+    /**
+     * @see #streamTransfer(InputStream, OutputStream, int, long)
+     * 
+     * @param pool The pool to take the transfer buffer from.
+     */
+    public static void streamTransfer(@NonNull InputStream source, @NonNull OutputStream dest, int bufferSize, long limit, @NonNull BufferPool pool) throws IOException {
         if (limit < 0) {
             // Don't constrain.
-            streamTransfer(source, dest, bufferSize);
+            streamTransfer(source, dest, bufferSize, pool);
             return;
         }
 
-        byte[] buffer = new byte[bufferSize];
-        long remaining = limit;
-        int read = 0;
-        while ((read = source.read(buffer)) != -1) {
-            if (read >= remaining) {
-                dest.write(buffer, 0, (int) remaining);
-                dest.flush();
-                break; // We're done!
-            }
+        if (isPlainFileCopy(source, dest)) {
+            transferTo(((FileInputStream) source).getChannel(), ((FileOutputStream) dest).getChannel(), limit);
+            return;
+        }
 
-            remaining -= read;
-            dest.write(buffer, 0, read);
-            dest.flush();
+        byte[] buffer = pool.take(bufferSize);
+        try {
+            long remaining = limit;
+            int read = 0;
+            while (remaining > 0 && (read = source.read(buffer, 0, (int) Math.min(bufferSize, remaining))) != -1) {
+                remaining -= read;
+                dest.write(buffer, 0, read);
+            }
+        } finally {
+            pool.give(buffer);
         }
+
+        dest.flush();
     }
 
     /**
@@ -81,16 +123,193 @@ public class StreamUtil {
      *                       success.
      */
     public static void streamTransfer(@NonNull InputStream source, @NonNull OutputStream dest, int bufferSize) throws IOException {
-        byte[] buffer = new byte[bufferSize];
-        int read = 0;
+        streamTransfer(source, dest, bufferSize, BufferPool.DEFAULT);
+    }
 
-        while ((read = source.read(buffer)) != -1) {
-            dest.write(buffer, 0, read);
+    /**
+     * @see #streamTransfer(InputStream, OutputStream, int)
+     * 
+     * @param pool The pool to take the transfer buffer from.
+     */
+    public static void streamTransfer(@NonNull InputStream source, @NonNull OutputStream dest, int bufferSize, @NonNull BufferPool pool) throws IOException {
+        if (isPlainFileCopy(source, dest)) {
+            transferTo(((FileInputStream) source).getChannel(), ((FileOutputStream) dest).getChannel(), -1);
+            dest.flush();
+            return;
+        }
+
+        if (OVERRIDES_TRANSFER_TO.get(source.getClass())) {
+            source.transferTo(dest); // e.g ByteArrayInputStream writes its array in one go.
+            dest.flush();
+            return;
+        }
+
+        byte[] buffer = pool.take(bufferSize);
+        try {
+            int read = 0;
+            while ((read = source.read(buffer, 0, bufferSize)) != -1) {
+                dest.write(buffer, 0, read);
+            }
+        } finally {
+            pool.give(buffer);
         }
 
         dest.flush();
     }
 
+    /**
+     * Starts an {@link AsyncStreamTransfer}, which reads and writes concurrently.
+     * Use {@link AsyncStreamTransfer} directly for progress reporting, rate
+     * limiting and cancellation.
+     * 
+     * @param    bufferSize The size of each of the two transfer buffers.
+     * @param    limit      The expected length of source, any negative value for
+     *                      unconstrained reading.
+     * 
+     * @return              A promise for the amount of bytes transferred.
+     * 
+     * @implNote            The streams are NOT automatically closed for you.
+     */
+    public static Promise<Long> streamTransferAsync(@NonNull InputStream source, @NonNull OutputStream dest, int bufferSize, long limit) {
+        return new AsyncStreamTransfer(source, dest)
+            .setBufferSize(bufferSize)
+            .setLimit(limit)
+            .start();
+    }
+
+    /**
+     * Copies from a file straight into a channel, letting the OS do the copy
+     * where it can (e.g sendfile(2) into a SocketChannel on Linux). The source's
+     * position is advanced by the amount transferred.
+     * 
+     * <p>
+     * Files that aren't regular files (pipes, or special files like /proc which
+     * report a size of 0) and OS copies that stop short are finished with plain
+     * reads and writes.
+     * 
+     * @param    limit       The maximum amount of bytes to transfer, or any
+     *                       negative value to transfer up to the end of the file.
+     * 
+     * @return               The amount of bytes transferred.
+     * 
+     * @throws   IOException If an IO error occurs.
+     * 
+     * @implNote             The destination should be in blocking mode, a
+     *                       non-blocking channel that accepts nothing ends the
+     *                       transfer early.
+     */
+    public static long transferTo(@NonNull FileChannel source, @NonNull WritableByteChannel dest, long limit) throws IOException {
+        long transferred = 0;
+
+        long remainingInFile = remainingInFile(source);
+        if (remainingInFile != -1) {
+            long start = source.position();
+            long end = start + (limit < 0 ? remainingInFile : Math.min(remainingInFile, limit));
+
+            long position = start;
+            while (position < end) {
+                long count = source.transferTo(position, end - position, dest);
+                if (count <= 0) break;
+                position += count;
+            }
+
+            source.position(position);
+            transferred = position - start;
+
+            if (position == end) {
+                return transferred;
+            }
+        }
+
+        if (dest instanceof SelectableChannel && !((SelectableChannel) dest).isBlocking()) {
+            return transferred; // Reading more would just leave us holding bytes we can't write.
+        }
+
+        long remaining = limit < 0 ? Long.MAX_VALUE : limit - transferred;
+        return transferred + copy(source, dest, remaining);
+    }
+
+    /**
+     * Copies from a channel (e.g a SocketChannel) straight into a file at its
+     * current position, letting the OS do the copy where it can. The
+     * destination's position is advanced by the amount transferred.
+     * 
+     * @param    limit       The maximum amount of bytes to transfer, or any
+     *                       negative value to transfer until the source is
+     *                       exhausted.
+     * 
+     * @return               The amount of bytes transferred.
+     * 
+     * @throws   IOException If an IO error occurs.
+     * 
+     * @implNote             The source should be in blocking mode, a non-blocking
+     *                       channel with nothing to read ends the transfer early.
+     */
+    public static long transferFrom(@NonNull ReadableByteChannel source, @NonNull FileChannel dest, long limit) throws IOException {
+        long start = dest.position();
+
+        long total = 0;
+        while (limit < 0 || total < limit) {
+            long chunk = limit < 0 ? CHANNEL_TRANSFER_CHUNK : Math.min(CHANNEL_TRANSFER_CHUNK, limit - total);
+            long transferred = dest.transferFrom(source, start + total, chunk);
+            if (transferred <= 0) break;
+            total += transferred;
+        }
+
+        dest.position(start + total);
+        return total;
+    }
+
+    /**
+     * Plain file streams can skip user space entirely. Subclasses might override
+     * read()/write() so we leave those alone.
+     */
+    private static boolean isPlainFileCopy(InputStream source, OutputStream dest) {
+        return source.getClass() == FileInputStream.class
+            && dest.getClass() == FileOutputStream.class
+            && remainingInFile(((FileInputStream) source).getChannel()) != -1;
+    }
+
+    /**
+     * @return the amount of bytes left in the file, or -1 if it isn't a regular
+     *         file. Pipes can't seek and special files (e.g /proc) report a size
+     *         of 0, so neither can be trusted.
+     */
+    private static long remainingInFile(FileChannel channel) {
+        try {
+            long size = channel.size();
+            if (size <= 0) return -1;
+
+            return Math.max(0, size - channel.position());
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long copy(ReadableByteChannel source, WritableByteChannel dest, long limit) throws IOException {
+        byte[] array = BufferPool.DEFAULT.take(COPY_BUFFER_SIZE);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(array);
+
+            long total = 0;
+            while (total < limit) {
+                buffer.clear().limit((int) Math.min(array.length, limit - total));
+
+                int read = source.read(buffer);
+                if (read == -1) break;
+
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    dest.write(buffer);
+                }
+                total += read;
+            }
+            return total;
+        } finally {
+            BufferPool.DEFAULT.give(array);
+        }
+    }
+
     /**
      * @param    source The data source.
      * 
@@ -107,9 +326,36 @@ public class StreamUtil {
      *                  block).
      */
     public static byte[] toBytes(@NonNull InputStream source) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        streamTransfer(source, out, 2048);
-        return out.toByteArray();
+        // Start with the expected size so that we (usually) never grow or copy.
+        long expected = -1;
+        if (source.getClass() == FileInputStream.class) {
+            expected = remainingInFile(((FileInputStream) source).getChannel());
+        }
+        if (expected == -1) {
+            expected = source.available();
+        }
+
+        byte[] buffer = new byte[(int) Math.min(Math.max(expected, 2048), MAX_ARRAY_SIZE)];
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                // Check for EOF before growing, if the size hint was exact then we're done.
+                int next = source.read();
+                if (next == -1) break;
+
+                if (buffer.length == MAX_ARRAY_SIZE) {
+                    throw new IOException("Stream is too large to fit in an array.");
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, MAX_ARRAY_SIZE));
+                buffer[length++] = (byte) next;
+            }
+
+            int read = source.read(buffer, length, buffer.length - length);
+            if (read == -1) break;
+            length += read;
+        }
+
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
     }
 
     /**
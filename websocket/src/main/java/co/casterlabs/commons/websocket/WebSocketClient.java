@@ -12,6 +12,7 @@ import java.util.concurrent.ThreadFactory;
 
 import javax.net.SocketFactory;
 
+import co.casterlabs.commons.io.bytes.BufferPool;
 import lombok.NonNull;
 import lombok.Setter;
 
@@ -27,6 +28,13 @@ public class WebSocketClient implements Closeable {
     @NonNull
     SocketFactory socketFactory; // This is populated by default in the constructor.
 
+    /**
+     * The pool that the connection's read and handshake buffers are taken from.
+     */
+    @Setter
+    @NonNull
+    BufferPool bufferPool = BufferPool.DEFAULT;
+
     @Setter
     @NonNull
     WebSocketListener listener = new WebSocketListener() {
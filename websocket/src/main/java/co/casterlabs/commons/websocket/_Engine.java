@@ -106,7 +106,7 @@ class _Engine implements Closeable {
             this.socket.setSoTimeout((int) timeout);
             this.socket.setTcpNoDelay(true);
 
-            this.reader.inputStream = new OverzealousInputStream(this.socket.getInputStream());
+            this.reader.inputStream = new OverzealousInputStream(this.socket.getInputStream(), this.client.bufferPool);
             this.writer.outputStream = new MTUOutputStream(this.socket.getOutputStream(), MTUOutputStream.guessMtu(this.socket));
 
             StringBuilder handshake = new StringBuilder()
@@ -126,12 +126,12 @@ class _Engine implements Closeable {
 
             this.writer.outputStream.write(handshake.toString().getBytes(_HttpUtil.CHARSET));
 
-            ResponseLineInfo responseLine = _HttpUtil.readResponseLine(this.reader.inputStream, this.client.maxPayloadLength);
+            ResponseLineInfo responseLine = _HttpUtil.readResponseLine(this.reader.inputStream, this.client.maxPayloadLength, this.client.bufferPool);
             if (responseLine.statusCode != 101) {
                 throw new IOException("Expected status code 101, got " + responseLine.statusCode + ": " + responseLine.statusMessage);
             }
 
-            Map<String, String> headers = _HttpUtil.readHeaders(this.reader.inputStream, this.client.maxPayloadLength);
+            Map<String, String> headers = _HttpUtil.readHeaders(this.reader.inputStream, this.client.maxPayloadLength, this.client.bufferPool);
             String acceptedProtocol = headers.get("Sec-WebSocket-Protocol".toLowerCase());
 
             this.state = _State.CONNECTED;
@@ -179,6 +179,10 @@ class _Engine implements Closeable {
                 this.socket.close();
             } catch (Throwable ignored) {}
 
+            try {
+                this.reader.inputStream.close(); // Gives the overage buffer back to the pool.
+            } catch (Throwable ignored) {}
+
             this.readThread.interrupt();
             this.pingThread.interrupt();
 
@@ -2,9 +2,8 @@ package co.casterlabs.commons.websocket;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedList;
-import java.util.List;
 
+import co.casterlabs.commons.io.bytes.CompositeByteBuffer;
 import co.casterlabs.commons.io.marshalling.PrimitiveMarshall;
 import co.casterlabs.commons.io.streams.OverzealousInputStream;
 import lombok.RequiredArgsConstructor;
@@ -14,11 +13,12 @@ class _EngineReader {
     private final _Engine engine;
     OverzealousInputStream inputStream;
 
+    private final byte[] scratch = new byte[Long.BYTES];
+
     void doReadLoop() throws IOException {
         // For continuation frames.
         int fragmentedOpCode = 0;
-        int fragmentedLength = 0;
-        List<byte[]> fragmentedPackets = new LinkedList<>();
+        CompositeByteBuffer fragmentedPackets = new CompositeByteBuffer();
 
         while (!Thread.interrupted() && this.engine.state == _State.CONNECTED) {
             // @formatter:off
@@ -42,7 +42,8 @@ class _EngineReader {
             int length;
             if (len7 == 127) {
                 // Unsigned 64bit, possibly negative.
-                long length_long = PrimitiveMarshall.BIG_ENDIAN.bytesToLong(readN(8));
+                this.readFully(this.scratch, Long.BYTES);
+                long length_long = PrimitiveMarshall.BIG_ENDIAN.getLong(this.scratch, 0);
 
                 if (Long.compareUnsigned(length_long, this.engine.client.maxPayloadLength) > 0) {
                     throw new IllegalArgumentException(String.format("Payload length too large, max %d bytes got %s bytes.", this.engine.client.maxPayloadLength, Long.toUnsignedString(length_long)));
@@ -52,12 +53,8 @@ class _EngineReader {
             } else if (len7 == 126) {
                 // Unsigned 16bit, never negative. This can never be larger than
                 // MAX_PAYLOAD_LENGTH.
-                length = PrimitiveMarshall.BIG_ENDIAN.bytesToInt(new byte[] {
-                        0,
-                        0,
-                        (byte) this.throwRead(),
-                        (byte) this.throwRead(),
-                });
+                this.readFully(this.scratch, Short.BYTES);
+                length = PrimitiveMarshall.BIG_ENDIAN.getShort(this.scratch, 0) & 0xFFFF;
             } else {
                 // Unsigned 7bit, never negative. This can never be larger than
                 // MAX_PAYLOAD_LENGTH.
@@ -87,7 +84,7 @@ class _EngineReader {
 
             // Handle fragmented messages.
             if (op == _OpCode.CONTINUATION) {
-                fragmentedLength += payload.length;
+                long fragmentedLength = fragmentedPackets.size() + payload.length;
                 if (fragmentedLength > this.engine.client.maxPayloadLength) {
                     throw new IllegalArgumentException(String.format("Fragmented payload length too large, max %d bytes got %d bytes.", this.engine.client.maxPayloadLength, fragmentedLength));
                 }
@@ -100,16 +97,10 @@ class _EngineReader {
                 }
 
                 // Combine all the fragments together.
-                payload = new byte[fragmentedLength];
-                int off = 0;
-                for (byte[] fp : fragmentedPackets) {
-                    System.arraycopy(fp, 0, payload, off, fp.length);
-                    off += fp.length;
-                }
+                payload = fragmentedPackets.toByteArray();
 
                 // We're finished! Parse it!
                 op = fragmentedOpCode;
-                fragmentedLength = 0;
                 fragmentedPackets.clear();
             }
 
@@ -157,12 +148,16 @@ class _EngineReader {
 
     private byte[] readN(int length) throws IOException {
         byte[] buf = new byte[length];
+        this.readFully(buf, length);
+        return buf;
+    }
+
+    private void readFully(byte[] buf, int length) throws IOException {
         for (int read = 0; read < length;) {
             int nread = this.inputStream.read(buf, read, length - read);
             if (nread == -1) throw new IOException("Socket closed.");
             read += nread;
         }
-        return buf;
     }
 
     private int throwRead() throws IOException {
@@ -14,9 +14,12 @@ class _EngineWriter {
     private final _Engine engine;
     MTUOutputStream outputStream;
 
+    private final byte[] headerBytes = new byte[Long.BYTES + 2]; // Guarded by writeLock.
+
     void doPingLoop(long timeout) throws InterruptedException, IOException {
+        byte[] someBytes = new byte[Long.BYTES];
         while (true) {
-            byte[] someBytes = PrimitiveMarshall.BIG_ENDIAN.longToBytes(System.currentTimeMillis());
+            PrimitiveMarshall.BIG_ENDIAN.putLong(someBytes, 0, System.currentTimeMillis());
             this.sendFrame(true, _OpCode.PING, someBytes, 0, someBytes.length);
             Thread.sleep(timeout);
         }
@@ -80,27 +83,16 @@ class _EngineWriter {
 
             // Nagle's algorithm is disabled (aka no delay mode), so we batch writes to be
             // more efficient.
+            this.headerBytes[0] = (byte) header1;
+            this.headerBytes[1] = (byte) header2;
             if (len7 == 126) {
-                byte[] headerBytes = PrimitiveMarshall.BIG_ENDIAN.intToBytes(len);
-                headerBytes[0] = (byte) header1;
-                headerBytes[1] = (byte) header2; // We only need the first 16 bits from length, so we can overwrite 1-2 safely.
-
-                this.outputStream.write(headerBytes);
+                PrimitiveMarshall.BIG_ENDIAN.putShort(this.headerBytes, 2, (short) len);
+                this.outputStream.write(this.headerBytes, 0, 2 + Short.BYTES);
             } else if (len7 == 127) {
-                byte[] lenBytes = PrimitiveMarshall.BIG_ENDIAN.longToBytes(len);
-
-                byte[] headerBytes = new byte[Long.BYTES + 2];
-                headerBytes[0] = (byte) header1;
-                headerBytes[1] = (byte) header2;
-
-                System.arraycopy(lenBytes, 0, headerBytes, 2, Long.BYTES);
-
-                this.outputStream.write(headerBytes);
+                PrimitiveMarshall.BIG_ENDIAN.putLong(this.headerBytes, 2, len);
+                this.outputStream.write(this.headerBytes, 0, 2 + Long.BYTES);
             } else {
-                this.outputStream.write(new byte[] {
-                        (byte) header1,
-                        (byte) header2
-                });
+                this.outputStream.write(this.headerBytes, 0, 2);
             }
 
             // Note we use an MTUOutputStream here so that we batch writes to be more
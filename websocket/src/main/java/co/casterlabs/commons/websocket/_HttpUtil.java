@@ -7,6 +7,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
+import co.casterlabs.commons.io.bytes.BufferPool;
 import co.casterlabs.commons.io.streams.OverzealousInputStream;
 import lombok.AllArgsConstructor;
 import lombok.ToString;
@@ -32,9 +33,16 @@ class _HttpUtil {
     /* Data             */
     /* ---------------- */
 
-    static ResponseLineInfo readResponseLine(OverzealousInputStream input, int guessedMtu) throws IOException {
-        WorkBuffer buffer = new WorkBuffer(MAX_REQUEST_LINE_LENGTH);
+    static ResponseLineInfo readResponseLine(OverzealousInputStream input, int guessedMtu, BufferPool pool) throws IOException {
+        WorkBuffer buffer = new WorkBuffer(pool.take(MAX_REQUEST_LINE_LENGTH), MAX_REQUEST_LINE_LENGTH);
+        try {
+            return readResponseLine(input, guessedMtu, buffer);
+        } finally {
+            pool.give(buffer.raw);
+        }
+    }
 
+    private static ResponseLineInfo readResponseLine(OverzealousInputStream input, int guessedMtu, WorkBuffer buffer) throws IOException {
         // Request line
         int requestLineEnd = readLine(input, buffer, guessedMtu);
 
@@ -57,9 +65,17 @@ class _HttpUtil {
         return new ResponseLineInfo(version, statusCode, statusMessage);
     }
 
-    static Map<String, String> readHeaders(OverzealousInputStream input, int guessedMtu) throws IOException {
+    static Map<String, String> readHeaders(OverzealousInputStream input, int guessedMtu, BufferPool pool) throws IOException {
+        WorkBuffer buffer = new WorkBuffer(pool.take(MAX_HEADER_LENGTH), MAX_HEADER_LENGTH);
+        try {
+            return readHeaders(input, guessedMtu, buffer);
+        } finally {
+            pool.give(buffer.raw);
+        }
+    }
+
+    private static Map<String, String> readHeaders(OverzealousInputStream input, int guessedMtu, WorkBuffer buffer) throws IOException {
         Map<String, String> headers = new HashMap<>();
-        WorkBuffer buffer = new WorkBuffer(MAX_HEADER_LENGTH);
 
         String currentKey = null;
         String currentValue = null;
@@ -115,7 +131,7 @@ class _HttpUtil {
 
     private static int readLine(InputStream in, WorkBuffer buffer, int guessedMtu) throws IOException {
         while (true) {
-            for (int bufferIndex = buffer.marker; bufferIndex < buffer.limit; bufferIndex++) {
+            for (int bufferIndex = buffer.marker; bufferIndex < buffer.limit - 1; bufferIndex++) {
                 if (buffer.raw[bufferIndex] == '\r' && buffer.raw[bufferIndex + 1] == '\n') {
                     return bufferIndex; // End of line, break!
                 }
@@ -158,15 +174,17 @@ class _HttpUtil {
 
     private static class WorkBuffer {
         public final byte[] raw;
+        public final int capacity; // Pooled arrays may be larger than we asked for.
         public int marker;
         public int limit = 0;
 
-        public WorkBuffer(int bufferSize) {
-            this.raw = new byte[bufferSize];
+        public WorkBuffer(byte[] raw, int capacity) {
+            this.raw = raw;
+            this.capacity = capacity;
         }
 
         public int available() {
-            return this.raw.length - this.limit;
+            return this.capacity - this.limit;
         }
 
     }